@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordering of pending dismisses before onDismiss. The primitive sort used by removePendingDismisses
+ * is measured against the former sort of Comparable pending dismiss objects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DismissSortBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int batch;
+
+    private int[] positions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(47);
+        positions = new int[batch];
+        for (int i = 0; i < batch; i++) {
+            positions[i] = random.nextInt(batch * 4);
+        }
+    }
+
+    @Benchmark
+    public int[] sortPositions() {
+        int[] sorted = positions.clone();
+        PositionArrays.sortDescendingInPlace(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public int[] sortDistinctPositions() {
+        return PositionArrays.sortDescending(positions);
+    }
+
+    @Benchmark
+    public int[] sortPendingObjects() {
+        List<PendingPosition> pending = new ArrayList<PendingPosition>(batch);
+        for (int position : positions) {
+            pending.add(new PendingPosition(position));
+        }
+        Collections.sort(pending);
+        int[] sorted = new int[pending.size()];
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            sorted[i] = pending.get(i).position;
+        }
+        return sorted;
+    }
+
+    /**
+     * Same ordering as the pending dismiss objects used to have
+     */
+    static class PendingPosition implements Comparable<PendingPosition> {
+        final int position;
+
+        PendingPosition(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(PendingPosition other) {
+            return other.position - position;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store resizing done by resetItems when the adapter count changes: one jump to a large count,
+ * paged growth, 20 rows at a time, and a shrink to a filtered count, with the store in sparse and dense mode
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResetItemsBenchmark {
+
+    private static final int PAGE = 20;
+
+    @Param({"10000", "1000000"})
+    public int count;
+
+    @Param({"false", "true"})
+    public boolean dense;
+
+    private SwipeStateStore newStore() {
+        SwipeStateStore store = new SwipeStateStore();
+        if (dense) {
+            // Enough open rows near the top to switch to bitsets
+            for (int i = 0; i < 128; i++) {
+                store.open(i, false);
+            }
+        }
+        return store;
+    }
+
+    @Benchmark
+    public int grow() {
+        SwipeStateStore store = newStore();
+        store.ensureSize(count + 1);
+        return store.size();
+    }
+
+    @Benchmark
+    public int growPaged() {
+        SwipeStateStore store = newStore();
+        for (int size = PAGE; size <= count; size += PAGE) {
+            store.ensureSize(size + 1);
+        }
+        return store.size();
+    }
+
+    @Benchmark
+    public int shrink() {
+        SwipeStateStore store = newStore();
+        store.ensureSize(count + 1);
+        store.setSize(PAGE + 1);
+        return store.size();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring settles launched when the finger is lifted, over a mix of distances and release velocities:
+ * finding when the row comes to rest, and interpolating 60 frames of it
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpringSettleBenchmark {
+
+    private static final int GESTURES = 256;
+    private static final int VIEW_WIDTH = 1080;
+    private static final int FRAMES = 60;
+
+    @Param({"0.5", "1", "2"})
+    public float dampingRatio;
+
+    private SpringSettle spring;
+    private float[] offsets = new float[GESTURES];
+    private float[] velocities = new float[GESTURES];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(47);
+        spring = new SpringSettle(3000f, dampingRatio);
+        for (int i = 0; i < GESTURES; i++) {
+            offsets[i] = (random.nextFloat() * 2 - 1) * VIEW_WIDTH;
+            velocities[i] = (random.nextFloat() * 2 - 1) * 6000;
+        }
+    }
+
+    @Benchmark
+    public long start() {
+        long duration = 0;
+        for (int i = 0; i < GESTURES; i++) {
+            duration += spring.start(offsets[i], velocities[i], false);
+        }
+        return duration;
+    }
+
+    @Benchmark
+    public float progress() {
+        spring.start(-VIEW_WIDTH, 3000, false);
+        float sum = 0;
+        for (int frame = 0; frame <= FRAMES; frame++) {
+            sum += spring.progress((float) frame / FRAMES);
+        }
+        return sum;
+    }
+}
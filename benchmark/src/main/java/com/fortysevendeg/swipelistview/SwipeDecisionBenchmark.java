@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fling / distance decision made when the finger is lifted, over a mix of slow drags, flings
+ * and vertical motions, opened and closed rows
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwipeDecisionBenchmark {
+
+    private static final int GESTURES = 1024;
+    private static final int VIEW_WIDTH = 1080;
+    private static final int MIN_FLING_VELOCITY = 150;
+    private static final int MAX_FLING_VELOCITY = 24000;
+
+    private float[] deltaX = new float[GESTURES];
+    private float[] velocityX = new float[GESTURES];
+    private float[] velocityY = new float[GESTURES];
+    private boolean[] opened = new boolean[GESTURES];
+    private boolean[] openedRight = new boolean[GESTURES];
+    private boolean[] swipingRight = new boolean[GESTURES];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(47);
+        for (int i = 0; i < GESTURES; i++) {
+            deltaX[i] = (random.nextFloat() * 2 - 1) * VIEW_WIDTH;
+            velocityX[i] = (random.nextFloat() * 2 - 1) * 6000;
+            velocityY[i] = (random.nextFloat() * 2 - 1) * 3000;
+            opened[i] = random.nextInt(4) == 0;
+            openedRight[i] = random.nextBoolean();
+            swipingRight[i] = deltaX[i] > 0;
+        }
+    }
+
+    @Benchmark
+    public int decide() {
+        int moveOut = 0;
+        for (int i = 0; i < GESTURES; i++) {
+            int decision = SwipeDecision.decide(deltaX[i], velocityX[i], velocityY[i], VIEW_WIDTH,
+                    MIN_FLING_VELOCITY, MAX_FLING_VELOCITY, false, false, true, true,
+                    opened[i], openedRight[i], swipingRight[i]);
+            moveOut += decision & SwipeDecision.MOVE_OUT;
+        }
+        return moveOut;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole gestures through the gesture engine: down, 8 ms moves and up, mixing swipes and
+ * vertical scrolls, with and without touch prediction. Reports the time per touch event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwipeGestureEngineBenchmark {
+
+    private static final int GESTURES = 64;
+    private static final int MOVES = 24;
+
+    @Param({"0", "2"})
+    public int predictionMode;
+
+    private final boolean[] opened = new boolean[GESTURES];
+    private float[][] xs;
+    private float[][] ys;
+    // Velocity of every gesture in pixels per second, as VelocityTracker measures a steady finger
+    private float[] velocityXs;
+    private float[] velocityYs;
+    private SwipeGestureEngine engine;
+    private int translations;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(47);
+        xs = new float[GESTURES][MOVES + 1];
+        ys = new float[GESTURES][MOVES + 1];
+        velocityXs = new float[GESTURES];
+        velocityYs = new float[GESTURES];
+        for (int g = 0; g < GESTURES; g++) {
+            boolean vertical = random.nextInt(4) == 0;
+            float speed = (random.nextFloat() * 2 - 1) * 40;
+            // Samples are 8 ms apart
+            velocityXs[g] = (vertical ? speed / 10 : speed) * 125;
+            velocityYs[g] = (vertical ? speed : speed / 10) * 125;
+            float x = 540;
+            float y = 800;
+            for (int i = 0; i <= MOVES; i++) {
+                xs[g][i] = x;
+                ys[g][i] = y;
+                x += vertical ? speed / 10 : speed;
+                y += vertical ? speed : speed / 10;
+            }
+        }
+        engine = new SwipeGestureEngine(new SwipeGestureEngine.Host() {
+            @Override
+            public boolean isOpened(int position) {
+                return opened[position];
+            }
+
+            @Override
+            public boolean isOpenedRight(int position) {
+                return false;
+            }
+
+            @Override
+            public int getSwipeMode(int position) {
+                return -1;
+            }
+
+            @Override
+            public void onSwipeStart(int position, boolean opened, boolean right) {
+            }
+
+            @Override
+            public void onTranslate(int position, float deltaX, boolean dismiss) {
+                translations++;
+            }
+
+            @Override
+            public void onTranslationPending(int position) {
+            }
+
+            @Override
+            public void onSettle(int position, boolean moveOut, boolean moveToRight, boolean dismiss, float velocityX) {
+                if (moveOut && !dismiss) {
+                    opened[position] = !opened[position];
+                }
+            }
+
+            @Override
+            public void onCancel(int position) {
+            }
+        }, 24, 150, 24000);
+        engine.setViewWidth(1080);
+        engine.setTouchPrediction(predictionMode, 8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GESTURES * (MOVES + 1))
+    public int gestures() {
+        long time = 0;
+        for (int g = 0; g < GESTURES; g++) {
+            float[] x = xs[g];
+            float[] y = ys[g];
+            engine.down(time, x[0], y[0], g);
+            for (int i = 1; i < MOVES; i++) {
+                time += 8;
+                engine.onTouchEvent(time, x[i], y[i], SwipeGestureEngine.TOUCH_MOVE, velocityXs[g], velocityYs[g]);
+            }
+            time += 8;
+            engine.onTouchEvent(time, x[MOVES], y[MOVES], SwipeGestureEngine.TOUCH_UP, velocityXs[g], velocityYs[g]);
+            engine.clearPosition();
+            time += 100;
+        }
+        return translations;
+    }
+}
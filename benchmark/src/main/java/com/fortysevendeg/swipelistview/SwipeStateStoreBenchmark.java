@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row state operations done on every bind, touch and dismiss: lookups, open / close, removals and
+ * range inserts, for a few or many open rows on small and large lists
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwipeStateStoreBenchmark {
+
+    private static final int OPERATIONS = 1024;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"8", "1000"})
+    public int openRows;
+
+    private SwipeStateStore store;
+    private SwipeIdStateStore idStore;
+    private int[] positions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(47);
+        store = new SwipeStateStore();
+        idStore = new SwipeIdStateStore();
+        store.ensureSize(size);
+        for (int i = 0; i < openRows; i++) {
+            int position = random.nextInt(size);
+            store.open(position, random.nextBoolean());
+            idStore.open(position, random.nextBoolean());
+        }
+        positions = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            positions[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public int isOpened() {
+        int opened = 0;
+        for (int position : positions) {
+            if (store.isOpened(position) && store.isOpenedRight(position)) {
+                opened++;
+            }
+        }
+        return opened;
+    }
+
+    @Benchmark
+    public int openClose() {
+        for (int position : positions) {
+            store.open(position, true);
+        }
+        for (int position : positions) {
+            store.close(position);
+        }
+        return store.getOpenCount();
+    }
+
+    @Benchmark
+    public int removeAndRestore() {
+        // Removes rows near the top, the worst case for shifting, then grows the store back.
+        // Reopening as many rows keeps the open count steady across invocations.
+        for (int i = 0; i < 16; i++) {
+            store.remove(positions[i] & 63);
+        }
+        store.ensureSize(size);
+        for (int i = 0; i < 16; i++) {
+            store.open(positions[i + 16], false);
+        }
+        return store.getOpenCount();
+    }
+
+    @Benchmark
+    public int insertAtTop() {
+        // A page of rows arrives at the top of a feed, then the same page is removed
+        store.insert(0, 20);
+        store.removeRange(0, 20);
+        return store.getOpenCount();
+    }
+
+    @Benchmark
+    public int idIsOpened() {
+        int opened = 0;
+        for (int position : positions) {
+            if (idStore.isOpened(position)) {
+                opened++;
+            }
+        }
+        return opened;
+    }
+
+    @Benchmark
+    public int idOpenClose() {
+        for (int position : positions) {
+            idStore.open(position, true);
+        }
+        for (int position : positions) {
+            idStore.close(position);
+        }
+        return idStore.getOpenCount();
+    }
+}
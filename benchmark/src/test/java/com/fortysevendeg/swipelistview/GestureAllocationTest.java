@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Swipes, flings, dismisses, scrolls and cancels through the gesture engine, with the row state kept
+ * in a SwipeStateStore and settles run by SpringSettle, must not allocate once the buffers are sized.
+ * The gestures are warmed up until compiled, and the test JVM runs without escape analysis (see
+ * build.gradle) so compiled code allocates like on a device. The same window is measured twice: an
+ * allocation of the gestures shows in both, a one-off allocation of the JIT or the TLABs doesn't.
+ */
+public class GestureAllocationTest {
+
+    private static final int ROWS = 40;
+    private static final int MOVES = 24;
+    private static final int ROUNDS = 20;
+    private static final int WARM_UP_ROUNDS = 50;
+    private static final int GESTURES_PER_ROUND = ROWS * 5;
+    private static final int FRAMES = 16;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    private final SwipeStateStore store = new SwipeStateStore();
+    private final SpringSettle spring = new SpringSettle(300f, 0.8f);
+    private final int[] dismissed = new int[1];
+    private SwipeGestureEngine engine;
+    private float settled;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        store.ensureSize(ROWS);
+        engine = new SwipeGestureEngine(new SwipeGestureEngine.Host() {
+            @Override
+            public boolean isOpened(int position) {
+                return store.isOpened(position);
+            }
+
+            @Override
+            public boolean isOpenedRight(int position) {
+                return store.isOpenedRight(position);
+            }
+
+            @Override
+            public int getSwipeMode(int position) {
+                return -1;
+            }
+
+            @Override
+            public void onSwipeStart(int position, boolean opened, boolean right) {
+            }
+
+            @Override
+            public void onTranslate(int position, float deltaX, boolean dismiss) {
+                settled += deltaX;
+            }
+
+            @Override
+            public void onTranslationPending(int position) {
+            }
+
+            @Override
+            public void onSettle(int position, boolean moveOut, boolean moveToRight, boolean dismiss, float velocityX) {
+                spring.start(moveToRight ? -1080 : 1080, velocityX, moveOut);
+                for (int i = 0; i <= FRAMES; i++) {
+                    settled += spring.progress(i / (float) FRAMES) + spring.velocity(i / (float) FRAMES);
+                }
+                if (dismiss) {
+                    store.remove(position);
+                    store.insert(position, 1);
+                    dismissed[0] = position;
+                    PositionArrays.sortDescendingInPlace(dismissed);
+                } else if (moveOut) {
+                    if (store.isOpened(position)) {
+                        store.close(position);
+                    } else {
+                        store.open(position, moveToRight);
+                    }
+                }
+            }
+
+            @Override
+            public void onCancel(int position) {
+            }
+        }, 24, 150, 24000);
+        engine.setViewWidth(1080);
+    }
+
+    @Test
+    public void revealGesturesDontAllocate() {
+        assertNoAllocation();
+    }
+
+    @Test
+    public void predictedGesturesDontAllocate() {
+        engine.setTouchPrediction(TouchPredictor.QUADRATIC, 8);
+        assertNoAllocation();
+    }
+
+    @Test
+    public void deferredGesturesDontAllocate() {
+        engine.setTouchPrediction(TouchPredictor.LINEAR, 8);
+        engine.setDeferTranslation(true);
+        assertNoAllocation();
+    }
+
+    @Test
+    public void dismissGesturesDontAllocate() {
+        engine.setSwipeActionLeft(SwipeGestureEngine.ACTION_DISMISS);
+        engine.setSwipeActionRight(SwipeGestureEngine.ACTION_DISMISS);
+        assertNoAllocation();
+    }
+
+    private void assertNoAllocation() {
+        gestures(WARM_UP_ROUNDS);
+        long allocated = Math.min(measureGestures(), measureGestures());
+        // Any allocation of a gesture costs at least 16 bytes per gesture, noise is far below one byte
+        int gestures = ROUNDS * GESTURES_PER_ROUND;
+        assertTrue(allocated + " bytes allocated by " + gestures + " gestures", allocated < gestures);
+    }
+
+    /**
+     * @return bytes allocated by the measured gestures
+     */
+    private long measureGestures() {
+        long thread = Thread.currentThread().getId();
+        // Reading the counter may allocate, so the same reads without gestures are subtracted
+        long before = threads.getThreadAllocatedBytes(thread);
+        long overhead = threads.getThreadAllocatedBytes(thread) - before;
+        before = threads.getThreadAllocatedBytes(thread);
+        gestures(ROUNDS);
+        return threads.getThreadAllocatedBytes(thread) - before - overhead;
+    }
+
+    /**
+     * On every row: a slow swipe that opens or closes it, a fling, a swipe back, a vertical scroll
+     * and a canceled swipe. Moves are 8 ms apart with one batched historical sample each.
+     */
+    private void gestures(int rounds) {
+        long time = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int position = 0; position < ROWS; position++) {
+                boolean right = (position + round) % 2 == 0;
+                float stepX = right ? 30 : -30;
+                time = gesture(time, position, stepX, 2, false, 0, SwipeGestureEngine.TOUCH_UP);
+                time = gesture(time, position, stepX, 1, false, stepX * 250, SwipeGestureEngine.TOUCH_UP);
+                time = gesture(time, position, stepX / 4, 4, true, 0, SwipeGestureEngine.TOUCH_UP);
+                time = gesture(time, position, 2, 40, false, 0, SwipeGestureEngine.TOUCH_UP);
+                time = gesture(time, position, stepX, 0, false, 0, SwipeGestureEngine.TOUCH_CANCEL);
+            }
+        }
+    }
+
+    /**
+     * @param stepX  horizontal move of each sample
+     * @param stepY  vertical move of each sample
+     * @param back   true to swipe back faster after half of the moves
+     * @param fling  horizontal velocity reported when the finger is lifted, in pixels per second
+     * @param finish TOUCH_UP or TOUCH_CANCEL
+     * @return time after the gesture
+     */
+    private long gesture(long time, int position, float stepX, float stepY, boolean back, float fling, int finish) {
+        float x = 540;
+        float y = 800;
+        engine.down(time, x, y, position);
+        for (int i = 1; i <= MOVES; i++) {
+            float dx = back && i > MOVES / 2 ? -stepX * 3 : stepX;
+            engine.addHistoricalSample(time + 4, x + dx / 2, y + stepY / 2);
+            time += 8;
+            x += dx;
+            y += stepY;
+            engine.onTouchEvent(time, x, y, SwipeGestureEngine.TOUCH_MOVE, dx * 125, stepY * 125);
+            engine.renderPendingTranslation(time);
+        }
+        time += 8;
+        engine.onTouchEvent(time, x, y, finish, finish == SwipeGestureEngine.TOUCH_UP ? fling : 0, 0);
+        engine.clearPosition();
+        return time + 100;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * When PrefetchTrigger requests the next page: at the prefetch distance, earlier while scrolling fast,
+ * and once per crossing
+ */
+public class PrefetchTriggerTest {
+
+    private static final int DISTANCE = 5;
+    private static final int VISIBLE = 10;
+    private static final int TOTAL = 100;
+
+    private PrefetchTrigger trigger;
+
+    @Before
+    public void setUp() {
+        trigger = new PrefetchTrigger(DISTANCE);
+    }
+
+    @Test
+    public void firesOnceAtTheDistance() {
+        // 10 rows left, then 6, 5 and 4
+        assertFalse(layout(80, TOTAL));
+        assertFalse(layout(84, TOTAL));
+        assertTrue(layout(85, TOTAL));
+        assertFalse(layout(86, TOTAL));
+        assertFalse(layout(90, TOTAL));
+    }
+
+    @Test
+    public void newItemsRearm() {
+        assertTrue(layout(85, TOTAL));
+        // The next page arrived
+        assertFalse(layout(85, TOTAL + 20));
+        assertTrue(layout(105, TOTAL + 20));
+    }
+
+    @Test
+    public void scrollingBackByAScreenRearms() {
+        assertTrue(layout(85, TOTAL));
+        // Less than a screen back
+        assertFalse(layout(76, TOTAL));
+        assertFalse(layout(85, TOTAL));
+        // More than a screen back
+        assertFalse(layout(74, TOTAL));
+        assertTrue(layout(85, TOTAL));
+    }
+
+    @Test
+    public void fastScrollFiresEarlier() {
+        // A row every 16 ms covers 31 rows in the 500 ms lookahead, once the velocity has converged
+        assertEquals(DISTANCE + 31, scrollUntilFired());
+    }
+
+    @Test
+    public void noLookaheadIgnoresVelocity() {
+        trigger.setLookahead(0);
+        assertEquals(DISTANCE, scrollUntilFired());
+    }
+
+    @Test
+    public void idleListForgetsVelocity() {
+        for (int row = 0; row < 40; row++) {
+            assertFalse(trigger.onScroll(1000 + row * 16, row, VISIBLE, TOTAL, true));
+        }
+        trigger.onScrollIdle();
+        // 20 rows left: within the velocity lookahead, but the list is at rest
+        assertFalse(layout(70, TOTAL));
+        assertTrue(layout(85, TOTAL));
+    }
+
+    @Test
+    public void layoutPassesDontChangeVelocity() {
+        // Layout passes far apart in time and rows measure no velocity
+        assertFalse(trigger.onScroll(1000, 0, VISIBLE, TOTAL, false));
+        assertFalse(trigger.onScroll(1016, 60, VISIBLE, TOTAL, false));
+        assertFalse(layout(84, TOTAL));
+        assertTrue(layout(85, TOTAL));
+    }
+
+    @Test
+    public void emptyListNeverFires() {
+        assertFalse(layout(0, 0));
+    }
+
+    /**
+     * Layout pass, not scrolling
+     */
+    private boolean layout(int row, int total) {
+        return trigger.onScroll(0, row, VISIBLE, total, false);
+    }
+
+    /**
+     * Scrolls down a row every 16 ms
+     *
+     * @return rows left below the last visible one when the trigger fired
+     */
+    private int scrollUntilFired() {
+        for (int row = 0; row < TOTAL - VISIBLE; row++) {
+            if (trigger.onScroll(1000 + row * 16, row, VISIBLE, TOTAL, true)) {
+                return TOTAL - VISIBLE - row;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The closed-form spring of SpringSettle, checked against a numerical integration of its equation
+ * for critically, under and over-damped springs
+ */
+public class SpringSettleTest {
+
+    private static final float STIFFNESS = 3000;
+
+    @Test
+    public void criticallyDampedSpringMatchesIntegration() {
+        assertMatchesIntegration(1f, 100, 500);
+        assertMatchesIntegration(1f, -240, 3000);
+    }
+
+    @Test
+    public void underDampedSpringMatchesIntegration() {
+        assertMatchesIntegration(0.3f, 100, 0);
+        assertMatchesIntegration(0.5f, -240, -1500);
+    }
+
+    @Test
+    public void overDampedSpringMatchesIntegration() {
+        assertMatchesIntegration(2f, 100, 0);
+        assertMatchesIntegration(1.5f, 240, -4000);
+    }
+
+    @Test
+    public void criticallyDampedSpringNeverOvershoots() {
+        SpringSettle spring = new SpringSettle(STIFFNESS, 1f);
+        spring.start(100, 0, false);
+        float previous = 0;
+        for (int i = 0; i <= 100; i++) {
+            float progress = spring.progress(i / 100f);
+            assertTrue(progress >= previous);
+            assertTrue(progress <= 1f);
+            previous = progress;
+        }
+    }
+
+    @Test
+    public void underDampedSpringBouncesUnlessStoppedAtTarget() {
+        SpringSettle spring = new SpringSettle(STIFFNESS, 0.3f);
+        long bouncing = spring.start(100, 0, false);
+        float maxProgress = 0;
+        for (int i = 0; i <= 100; i++) {
+            maxProgress = Math.max(maxProgress, spring.progress(i / 100f));
+        }
+        assertTrue(maxProgress + " at most", maxProgress > 1.2f);
+
+        long stopped = spring.start(100, 0, true);
+        assertTrue(stopped < bouncing);
+        for (int i = 0; i <= 100; i++) {
+            assertTrue(spring.progress(i / 100f) <= 1f);
+        }
+        // It ends on the first step past the target
+        assertTrue(integrate(0.3f, 100, 0, stopped / 1000.0)[0] <= 0);
+        assertTrue(integrate(0.3f, 100, 0, (stopped - 4) / 1000.0)[0] > 0);
+    }
+
+    @Test
+    public void durationEndsAtRest() {
+        SpringSettle spring = new SpringSettle(STIFFNESS, 1f);
+        long duration = spring.start(100, -1000, false);
+        double[] end = integrate(1f, 100, -1000, duration / 1000.0);
+        assertTrue(Math.abs(end[0]) < 0.5 && Math.abs(end[1]) < 20.5);
+        double[] before = integrate(1f, 100, -1000, (duration - 4) / 1000.0);
+        assertTrue(Math.abs(before[0]) >= 0.5 || Math.abs(before[1]) >= 19.5);
+        assertEquals(1f, spring.progress(1f), 0f);
+    }
+
+    @Test
+    public void velocityMatchesIntegration() {
+        float[] dampingRatios = {0.3f, 1f, 2f};
+        for (float dampingRatio : dampingRatios) {
+            SpringSettle spring = new SpringSettle(STIFFNESS, dampingRatio);
+            long duration = spring.start(100, -1500, false);
+            for (int i = 0; i < 20; i++) {
+                float fraction = i / 20f;
+                double t = fraction * duration / 1000.0;
+                // The velocity is measured over the next millisecond
+                double expected = (integrate(dampingRatio, 100, -1500, t + 0.001)[0]
+                        - integrate(dampingRatio, 100, -1500, t)[0]) * 1000;
+                assertEquals("velocity at " + fraction + " with damping " + dampingRatio,
+                        expected, spring.velocity(fraction), 0.05);
+            }
+            assertEquals(0f, spring.velocity(1f), 0f);
+        }
+    }
+
+    @Test
+    public void retargetedSpringKeepsTheInFlightVelocity() {
+        SpringSettle spring = new SpringSettle(STIFFNESS, 1f);
+        spring.start(200, 0, false);
+        float fraction = 0.1f;
+        float velocity = spring.velocity(fraction);
+        float offset = 200 * (1 - spring.progress(fraction));
+        assertTrue(velocity < 0);
+
+        // Settling back to where it started from the same point and velocity
+        SpringSettle retargeted = new SpringSettle(STIFFNESS, 1f);
+        retargeted.start(offset - 200, velocity, false);
+        double initialVelocity = (integrate(1f, offset - 200, velocity, 0.001)[0] - (offset - 200)) * 1000;
+        assertEquals(initialVelocity, retargeted.velocity(0), 0.05);
+    }
+
+    @Test
+    public void stifferSpringSettlesFaster() {
+        long soft = new SpringSettle(1000, 1f).start(100, 0, false);
+        long stiff = new SpringSettle(6000, 1f).start(100, 0, false);
+        assertTrue(stiff + " ms against " + soft + " ms", stiff < soft);
+    }
+
+    @Test
+    public void rowOnTargetHasNothingToAnimate() {
+        SpringSettle spring = new SpringSettle(STIFFNESS, 1f);
+        assertEquals(0, spring.start(0.2f, 3000, false));
+        assertEquals(1f, spring.progress(0.3f), 0f);
+    }
+
+    @Test
+    public void weakSpringIsCappedAtMaxDuration() {
+        SpringSettle spring = new SpringSettle(1, 0.01f);
+        assertEquals(SpringSettle.MAX_DURATION, spring.start(1000, 0, false));
+        assertEquals(SpringSettle.MAX_DURATION, spring.getDuration());
+    }
+
+    /**
+     * Compares the progress of a spring with the integrated offset, over its whole duration
+     */
+    private static void assertMatchesIntegration(float dampingRatio, float offset, float velocity) {
+        SpringSettle spring = new SpringSettle(STIFFNESS, dampingRatio);
+        long duration = spring.start(offset, velocity, false);
+        assertTrue(duration > 0);
+        for (int i = 0; i < 20; i++) {
+            float fraction = i / 20f;
+            double t = fraction * duration / 1000.0;
+            double expected = 1 - integrate(dampingRatio, offset, velocity, t)[0] / offset;
+            assertEquals("progress at " + fraction, expected, spring.progress(fraction), 1e-4);
+        }
+    }
+
+    /**
+     * Integrates x'' = -stiffness * x - 2 * dampingRatio * sqrt(stiffness) * x' with Runge-Kutta
+     *
+     * @return offset and velocity at t seconds
+     */
+    static double[] integrate(float dampingRatio, double offset, double velocity, double t) {
+        double omega = Math.sqrt(STIFFNESS);
+        double damping = 2 * dampingRatio * omega;
+        int steps = (int) Math.ceil(t / 1e-5);
+        double dt = steps == 0 ? 0 : t / steps;
+        double x = offset;
+        double v = velocity;
+        for (int i = 0; i < steps; i++) {
+            double a1 = -STIFFNESS * x - damping * v;
+            double x2 = x + v * dt / 2;
+            double v2 = v + a1 * dt / 2;
+            double a2 = -STIFFNESS * x2 - damping * v2;
+            double x3 = x + v2 * dt / 2;
+            double v3 = v + a2 * dt / 2;
+            double a3 = -STIFFNESS * x3 - damping * v3;
+            double x4 = x + v3 * dt;
+            double v4 = v + a3 * dt;
+            double a4 = -STIFFNESS * x4 - damping * v4;
+            x += (v + 2 * v2 + 2 * v3 + v4) * dt / 6;
+            v += (a1 + 2 * a2 + 2 * a3 + a4) * dt / 6;
+        }
+        return new double[]{x, v};
+    }
+}
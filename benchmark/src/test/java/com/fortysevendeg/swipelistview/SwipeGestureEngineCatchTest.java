@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Rows caught by a touch while they settle: they settle again from where they were stopped, or the
+ * drag goes on from there
+ */
+public class SwipeGestureEngineCatchTest {
+
+    private static final int WIDTH = 1080;
+
+    private SwipeTouchTraceReplayTest.RecordingHost host;
+    private SwipeGestureEngine engine;
+
+    @Before
+    public void setUp() {
+        host = new SwipeTouchTraceReplayTest.RecordingHost();
+        engine = new SwipeGestureEngine(host, 24, 150, 24000);
+        engine.setViewWidth(WIDTH);
+    }
+
+    @Test
+    public void heldRowSettlesBackBeforeHalfWidth() {
+        engine.down(0, 100, 500, 2);
+        engine.catchRow(200);
+        assertTrue(engine.isCaught());
+        up(24, 100);
+        assertEquals(Collections.singletonList("settle 2 back left 0"), host.commands);
+        assertFalse(engine.isCaught());
+    }
+
+    @Test
+    public void heldRowSettlesOutPastHalfWidth() {
+        engine.down(0, 100, 500, 2);
+        engine.catchRow(600);
+        up(24, 100);
+        assertEquals(Collections.singletonList("settle 2 out right 0"), host.commands);
+    }
+
+    @Test
+    public void dragGoesOnFromTheCaughtOffset() {
+        engine.down(0, 100, 500, 2);
+        engine.catchRow(300);
+        move(8, 250);
+        move(16, 400);
+        up(24, 400);
+        assertEquals(Arrays.asList("start 2 closed right", "translate 2 450.0", "translate 2 600.0",
+                "settle 2 out right 0"), host.commands);
+    }
+
+    @Test
+    public void caughtOpenedRowClosesPastHalfWidth() {
+        host.onSettle(2, true, true, false, 0);
+        host.commands.clear();
+        engine.down(0, 100, 500, 2);
+        engine.catchRow(-300);
+        up(24, 100);
+        engine.down(100, 100, 500, 2);
+        engine.catchRow(-700);
+        up(124, 100);
+        assertEquals(Arrays.asList("settle 2 back left 0", "settle 2 out left 0"), host.commands);
+    }
+
+    @Test
+    public void canceledCatchSettlesInsteadOfStayingStopped() {
+        engine.down(0, 100, 500, 2);
+        engine.catchRow(600);
+        engine.onTouchEvent(16, 100, 500, SwipeGestureEngine.TOUCH_CANCEL, 0, 0);
+        assertEquals(Collections.singletonList("settle 2 out right 0"), host.commands);
+        assertFalse(engine.isTracking());
+    }
+
+    @Test
+    public void catchOutsideOfGestureIsIgnored() {
+        engine.catchRow(600);
+        assertFalse(engine.isCaught());
+        // A new gesture forgets the last catch
+        engine.down(0, 100, 500, 2);
+        engine.catchRow(600);
+        engine.down(100, 100, 500, 2);
+        assertFalse(engine.isCaught());
+        up(124, 100);
+        assertEquals(Collections.<String>emptyList(), host.commands);
+    }
+
+    private void move(long time, float x) {
+        engine.onTouchEvent(time, x, 500, SwipeGestureEngine.TOUCH_MOVE, 1000, 0);
+    }
+
+    private void up(long time, float x) {
+        engine.onTouchEvent(time, x, 500, SwipeGestureEngine.TOUCH_UP, 0, 0);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reconciliation of the opened ids with the ids of the adapter
+ */
+public class SwipeIdStateStoreTest {
+
+    @Test
+    public void closesIdsMissingFromAdapter() {
+        SwipeIdStateStore store = new SwipeIdStateStore();
+        store.open(10, true);
+        store.open(20, false);
+        store.open(30, true);
+
+        // 20 was replaced by 21, the adapter still has as many items as opened rows
+        store.beginMark();
+        for (long id : new long[]{30, 21, 10}) {
+            store.mark(id);
+        }
+        store.closeUnmarked();
+
+        assertEquals(2, store.getOpenCount());
+        assertTrue(store.isOpenedRight(10));
+        assertFalse(store.isOpened(20));
+        assertTrue(store.isOpenedRight(30));
+    }
+
+    @Test
+    public void reportsWhenEveryOpenedIdIsMarked() {
+        SwipeIdStateStore store = new SwipeIdStateStore();
+        store.open(5, false);
+        store.open(7, false);
+
+        store.beginMark();
+        assertFalse(store.mark(1));
+        assertTrue(store.mark(7));
+        assertFalse(store.isAllMarked());
+        // A duplicated id counts once
+        assertFalse(store.mark(7));
+        assertFalse(store.isAllMarked());
+        assertTrue(store.mark(5));
+        assertTrue(store.isAllMarked());
+        store.closeUnmarked();
+        assertEquals(2, store.getOpenCount());
+    }
+
+    @Test
+    public void emptyAdapterClosesEveryRow() {
+        SwipeIdStateStore store = new SwipeIdStateStore();
+        for (int id = 0; id < 100; id++) {
+            store.open(id * 3, id % 2 == 0);
+        }
+        store.beginMark();
+        store.closeUnmarked();
+        assertEquals(0, store.getOpenCount());
+
+        // Reopening after the shrink
+        store.open(3, true);
+        assertTrue(store.isOpenedRight(3));
+        assertEquals(1, store.getOpenCount());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Buckets and percentiles of the SwipeMetrics histograms
+ */
+public class SwipeMetricsTest {
+
+    @Test
+    public void valuesFallInPowerOfTwoBuckets() {
+        long[] values = {0, 1, 2, 3, 4, 5, 8, 9, 1024, 1025, 2048, 2049, Long.MAX_VALUE};
+        int[] buckets = {0, 0, 1, 2, 2, 3, 3, 4, 10, 11, 11, 12, 12};
+        for (int i = 0; i < values.length; i++) {
+            assertEquals("bucket of " + values[i], buckets[i], SwipeMetrics.Histogram.bucketOf(values[i]));
+        }
+        assertEquals(1, SwipeMetrics.Histogram.getBucketUpperBound(0));
+        assertEquals(2048, SwipeMetrics.Histogram.getBucketUpperBound(11));
+        assertEquals(Long.MAX_VALUE, SwipeMetrics.Histogram.getBucketUpperBound(12));
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBoundsCappedAtTheMaximum() {
+        SwipeMetrics metrics = new SwipeMetrics();
+        for (int millis = 1; millis <= 100; millis++) {
+            metrics.recordTouchLatency(millis);
+        }
+        SwipeMetrics.Histogram latency = metrics.snapshot().touchLatency;
+        assertEquals(100, latency.getCount());
+        assertEquals(100, latency.getMax());
+        assertEquals(50.5f, latency.getMean(), 0f);
+        // 32 values up to 32 ms, 64 up to 64 ms, all of them up to 128 ms
+        assertEquals(1, latency.getPercentile(0));
+        assertEquals(1, latency.getPercentile(1));
+        assertEquals(16, latency.getPercentile(10));
+        assertEquals(32, latency.getPercentile(32));
+        assertEquals(64, latency.getPercentile(33));
+        assertEquals(64, latency.getPercentile(50));
+        assertEquals(100, latency.getPercentile(90));
+        assertEquals(100, latency.getPercentile(100));
+        // Out of range percentiles are clamped
+        assertEquals(1, latency.getPercentile(-5));
+        assertEquals(100, latency.getPercentile(150));
+    }
+
+    @Test
+    public void valuesOverTheLastBoundReportTheMaximum() {
+        SwipeMetrics metrics = new SwipeMetrics();
+        metrics.recordSettleDuration(3000);
+        metrics.recordSettleDuration(5000);
+        SwipeMetrics.Histogram settle = metrics.snapshot().settleDuration;
+        assertEquals(5000, settle.getPercentile(50));
+        assertEquals(5000, settle.getPercentile(99));
+    }
+
+    @Test
+    public void emptyAndNegativeValues() {
+        SwipeMetrics metrics = new SwipeMetrics();
+        SwipeMetrics.Histogram empty = metrics.snapshot().gestureDuration;
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getPercentile(50));
+        assertEquals(0f, empty.getMean(), 0f);
+
+        // A clock going back records 0
+        metrics.recordGestureDuration(-20);
+        SwipeMetrics.Histogram gesture = metrics.snapshot().gestureDuration;
+        assertEquals(1, gesture.getCount());
+        assertEquals(0, gesture.getMax());
+        assertEquals(0, gesture.getPercentile(50));
+    }
+
+    @Test
+    public void snapshotsAreCopies() {
+        SwipeMetrics metrics = new SwipeMetrics();
+        metrics.recordTouchLatency(10);
+        metrics.recordFrame(false, 2);
+        metrics.recordFrame(true, 0);
+        metrics.recordOpen();
+        metrics.recordDismiss(3);
+        SwipeMetrics.Snapshot snapshot = metrics.snapshot();
+
+        metrics.recordTouchLatency(10);
+        metrics.reset();
+        assertEquals(1, snapshot.touchLatency.getCount());
+        assertEquals(1, snapshot.dragFrames);
+        assertEquals(2, snapshot.dragDroppedFrames);
+        assertEquals(1, snapshot.settleFrames);
+        assertEquals(0, snapshot.settleDroppedFrames);
+        assertEquals(1, snapshot.openCount);
+        assertEquals(3, snapshot.dismissCount);
+
+        long[] counts = snapshot.touchLatency.getBucketCounts();
+        counts[4] = 100;
+        assertEquals(1, snapshot.touchLatency.getBucketCounts()[4]);
+
+        SwipeMetrics.Snapshot cleared = metrics.snapshot();
+        assertEquals(0, cleared.touchLatency.getCount());
+        assertEquals(0, cleared.dragFrames);
+        assertArrayEquals(new long[SwipeMetrics.Histogram.BUCKET_COUNT], cleared.touchLatency.getBucketCounts());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Round trips of the opened rows through their binary form, and rejection of corrupt bytes
+ */
+public class SwipeStateCodecTest {
+
+    @Test
+    public void positionsRoundTrip() throws IOException {
+        long[] values = {0, 1, 2, 3, 7, 8, 20, 99999};
+        boolean[] rights = {false, false, true, true, true, false, false, true};
+        byte[] bytes = encode(SwipeStateCodec.KIND_POSITIONS, values, rights, SwipeStateCodec.MAX_BYTES);
+        SwipeStateCodec state = SwipeStateCodec.decode(bytes);
+        assertEquals(SwipeStateCodec.KIND_POSITIONS, state.kind);
+        assertEquals(values.length, state.count);
+        assertSame(bytes, state.bytes);
+
+        SwipeStateStore store = new SwipeStateStore();
+        store.ensureSize(100000);
+        state.openPositions(store, 100000);
+        assertEquals(values.length, store.getOpenCount());
+        for (int i = 0; i < values.length; i++) {
+            assertTrue(store.isOpened((int) values[i]));
+            assertEquals(rights[i], store.isOpenedRight((int) values[i]));
+        }
+    }
+
+    @Test
+    public void positionsPastListSizeAreNotOpened() throws IOException {
+        long[] values = {-3, -2, 4, 5, 6, 50};
+        boolean[] rights = {true, false, true, false, true, false};
+        SwipeStateCodec state = SwipeStateCodec.decode(
+                encode(SwipeStateCodec.KIND_POSITIONS, values, rights, SwipeStateCodec.MAX_BYTES));
+        SwipeStateStore store = new SwipeStateStore();
+        store.ensureSize(6);
+        state.openPositions(store, 6);
+        assertEquals(2, store.getOpenCount());
+        assertTrue(store.isOpenedRight(4));
+        assertTrue(store.isOpened(5));
+        assertFalse(store.isOpenedRight(5));
+    }
+
+    @Test
+    public void idsRoundTrip() throws IOException {
+        long[] values = {Long.MIN_VALUE, -40, -39, -1, 0, 1, 1L << 40, Long.MAX_VALUE};
+        boolean[] rights = {true, false, true, false, true, false, true, false};
+        SwipeStateCodec state = SwipeStateCodec.decode(
+                encode(SwipeStateCodec.KIND_IDS, values, rights, SwipeStateCodec.MAX_BYTES));
+        assertEquals(SwipeStateCodec.KIND_IDS, state.kind);
+
+        SwipeIdStateStore store = new SwipeIdStateStore();
+        state.openIds(store);
+        assertEquals(values.length, store.getOpenCount());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i, state.indexOf(values[i]));
+            assertEquals(rights[i], state.isOpenedRightAt(i));
+            assertTrue(store.isOpened(values[i]));
+            assertEquals(rights[i], store.isOpenedRight(values[i]));
+        }
+        assertEquals(-1, state.indexOf(-41));
+        assertEquals(-1, state.indexOf(2));
+        assertEquals(-1, state.indexOf(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void wholeListTakesFewBytes() throws IOException {
+        int count = 1 << 20;
+        long[] values = new long[count];
+        boolean[] rights = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+            rights[i] = true;
+        }
+        byte[] bytes = encode(SwipeStateCodec.KIND_POSITIONS, values, rights, SwipeStateCodec.MAX_BYTES);
+        assertTrue(bytes.length + " bytes", bytes.length < 16);
+        SwipeStateCodec state = SwipeStateCodec.decode(bytes);
+        assertEquals(count, state.count);
+        assertEquals(count - 1, state.indexOf(count - 1));
+        assertTrue(state.isOpenedRightAt(count - 1));
+    }
+
+    @Test
+    public void rowsOverTheBoundAreTruncatedToTheLongestPrefix() throws IOException {
+        // Every other row, alternating directions, takes a few bytes per row
+        int count = 1000;
+        long[] values = new long[count];
+        boolean[] rights = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i * 2;
+            rights[i] = i % 2 == 0;
+        }
+        int maxBytes = 1000;
+        byte[] bytes = encode(SwipeStateCodec.KIND_POSITIONS, values, rights, maxBytes);
+        assertTrue(bytes.length + " bytes", bytes.length <= maxBytes);
+
+        SwipeStateCodec state = SwipeStateCodec.decode(bytes);
+        int kept = (int) state.count;
+        assertTrue(kept > 0 && kept < count);
+        // One more row wouldn't fit
+        assertTrue(encode(SwipeStateCodec.KIND_POSITIONS, values, rights, kept + 1, Integer.MAX_VALUE).length > maxBytes);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i < kept ? i : -1, state.indexOf(values[i]));
+            if (i < kept) {
+                assertEquals(rights[i], state.isOpenedRightAt(i));
+            }
+        }
+    }
+
+    @Test
+    public void noRowFitsAnEmptyState() throws IOException {
+        byte[] bytes = encode(SwipeStateCodec.KIND_IDS, new long[]{5, 9}, new boolean[]{true, false}, 5);
+        assertEquals(0, SwipeStateCodec.decode(bytes).count);
+    }
+
+    @Test
+    public void hugeRunsDecodeWithoutExpanding() throws IOException {
+        // Two runs declaring 2^62 rows in a few bytes
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(SwipeStateCodec.KIND_POSITIONS);
+        SwipeStateCodec.writeVarint(out, 1L << 62);
+        SwipeStateCodec.writeVarint(out, 1);
+        SwipeStateCodec.writeVarint(out, 0);
+        SwipeStateCodec.writeVarint(out, (1L << 62) - 1);
+        SwipeStateCodec.writeVarint(out, 1);
+        SwipeStateCodec.writeVarint(out, 1L << 62);
+        SwipeStateCodec state = SwipeStateCodec.decode(out.toByteArray());
+        assertEquals(1L << 62, state.count);
+        assertEquals((1L << 62) - 1, state.indexOf((1L << 62) - 1));
+
+        // Only the rows of the list are opened
+        SwipeStateStore store = new SwipeStateStore();
+        store.ensureSize(10);
+        state.openPositions(store, 10);
+        assertEquals(10, store.getOpenCount());
+    }
+
+    @Test
+    public void sizesTheBytesCantDescribeAreRejected() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // More runs than the bytes can hold
+        out.reset();
+        out.write(SwipeStateCodec.KIND_IDS);
+        SwipeStateCodec.writeVarint(out, 1L << 30);
+        SwipeStateCodec.writeVarint(out, 1L << 30);
+        assertRejected(out.toByteArray());
+        // A run longer than the declared size
+        out.reset();
+        out.write(SwipeStateCodec.KIND_IDS);
+        SwipeStateCodec.writeVarint(out, 2);
+        SwipeStateCodec.writeVarint(out, 1);
+        SwipeStateCodec.writeVarint(out, 0);
+        SwipeStateCodec.writeVarint(out, 2);
+        assertRejected(out.toByteArray());
+    }
+
+    @Test
+    public void overflowingRunsAreRejected() {
+        // The second run wraps past Long.MAX_VALUE
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(SwipeStateCodec.KIND_IDS);
+        SwipeStateCodec.writeVarint(out, 2);
+        SwipeStateCodec.writeVarint(out, 2);
+        SwipeStateCodec.writeVarint(out, SwipeStateCodec.zigzag(Long.MAX_VALUE - 1));
+        SwipeStateCodec.writeVarint(out, 0);
+        SwipeStateCodec.writeVarint(out, 5);
+        SwipeStateCodec.writeVarint(out, 0);
+        SwipeStateCodec.writeVarint(out, 1);
+        SwipeStateCodec.writeVarint(out, 2);
+        assertRejected(out.toByteArray());
+
+        // A run ending past Long.MAX_VALUE
+        out.reset();
+        out.write(SwipeStateCodec.KIND_IDS);
+        SwipeStateCodec.writeVarint(out, 3);
+        SwipeStateCodec.writeVarint(out, 1);
+        SwipeStateCodec.writeVarint(out, SwipeStateCodec.zigzag(Long.MAX_VALUE - 1));
+        SwipeStateCodec.writeVarint(out, 2);
+        SwipeStateCodec.writeVarint(out, 1);
+        SwipeStateCodec.writeVarint(out, 3);
+        assertRejected(out.toByteArray());
+    }
+
+    @Test
+    public void truncatedOrInvalidStateIsRejected() {
+        long[] values = {3, 4, 5, 10, 40, 41};
+        boolean[] rights = {true, true, false, false, true, false};
+        byte[] bytes = encode(SwipeStateCodec.KIND_POSITIONS, values, rights, SwipeStateCodec.MAX_BYTES);
+        for (int length = 0; length < bytes.length; length++) {
+            assertRejected(Arrays.copyOf(bytes, length));
+        }
+        byte[] kind = bytes.clone();
+        kind[0] = 3;
+        assertRejected(kind);
+        // Directions describing fewer rows than the runs
+        byte[] directions = bytes.clone();
+        directions[directions.length - 1]--;
+        assertRejected(directions);
+    }
+
+    private static byte[] encode(int kind, long[] values, boolean[] rights, int maxBytes) {
+        return encode(kind, values, rights, values.length, maxBytes);
+    }
+
+    private static byte[] encode(int kind, long[] values, boolean[] rights, int count, int maxBytes) {
+        return SwipeStateCodec.encode(kind, values, rights, count, maxBytes);
+    }
+
+    private static void assertRejected(byte[] bytes) {
+        try {
+            SwipeStateCodec.decode(bytes);
+            fail("Decoded " + Arrays.toString(bytes));
+        } catch (IOException expected) {
+            // Rejected
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Memory kept for the state of 100k rows by SwipeStateStore, against the two List&lt;Boolean&gt; it replaced.
+ * The lists are presized and hold the shared Boolean constants, so the bytes allocated to fill them,
+ * counted by the thread allocation counter, are what they keep. The store is measured from its fields,
+ * with the layout of a 64-bit JVM using compressed references: 12 byte object headers, 16 byte array
+ * headers, 4 byte references and objects aligned on 8 bytes. Run with -Dfootprint.print to print the sizes.
+ */
+public class SwipeStateStoreFootprintTest {
+
+    private static final int ROWS = 100000;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void storeKeepsFarLessThanBooleanLists() throws IllegalAccessException {
+        booleanListsBytes();
+        long lists = booleanListsBytes();
+        long sparse = storeBytes(8);
+        long manySparse = storeBytes(1000);
+        long dense = storeBytes(10000);
+        long allOpened = storeBytes(ROWS);
+        if (System.getProperty("footprint.print") != null) {
+            System.out.println("Memory kept for " + ROWS + " rows, in bytes");
+            System.out.println("  two List<Boolean>:                  " + lists);
+            System.out.println("  SwipeStateStore, 8 opened rows:     " + sparse);
+            System.out.println("  SwipeStateStore, 1000 opened rows:  " + manySparse);
+            System.out.println("  SwipeStateStore, 10000 opened rows: " + dense);
+            System.out.println("  SwipeStateStore, every row opened:  " + allOpened);
+        }
+        // A reference per row in each list
+        assertTrue(lists + " bytes for the lists", lists >= 2L * 4 * ROWS);
+        // Sparse: an int and a boolean per opened row, in arrays at most twice as long as needed
+        assertTrue(sparse + " bytes with 8 opened rows", sparse <= 128);
+        assertTrue(manySparse + " bytes with 1000 opened rows", manySparse <= 2 * 5 * 1024 + 128);
+        // Dense: 2 bits per row, 32 times less than the lists
+        assertTrue(dense + " bytes with 10000 opened rows", dense * 30 < lists);
+        assertEquals(dense, allOpened);
+    }
+
+    @Test
+    public void fieldSizesMatchAllocations() throws IllegalAccessException {
+        // A sparse store with few opened rows never outgrows an array, it keeps all it allocates
+        storeAllocatedBytes();
+        long allocated = storeAllocatedBytes();
+        assertEquals(retainedBytes(new SwipeStateStore()), allocated);
+    }
+
+    /**
+     * @return bytes allocated to keep the rows, all closed, in two presized List&lt;Boolean&gt;
+     */
+    private long booleanListsBytes() {
+        long before = allocatedBytes();
+        List<Boolean> opened = new ArrayList<Boolean>(ROWS);
+        List<Boolean> openedRight = new ArrayList<Boolean>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            opened.add(false);
+            openedRight.add(false);
+        }
+        long bytes = allocatedBytes() - before;
+        assertEquals(opened.size(), openedRight.size());
+        return bytes;
+    }
+
+    /**
+     * @param openRows opened rows, spread over the list
+     * @return bytes kept by a SwipeStateStore of the rows
+     */
+    private static long storeBytes(int openRows) throws IllegalAccessException {
+        SwipeStateStore store = new SwipeStateStore();
+        store.ensureSize(ROWS);
+        for (int i = 0; i < openRows; i++) {
+            store.open((int) ((long) i * ROWS / openRows), i % 2 == 0);
+        }
+        assertEquals(openRows, store.getOpenCount());
+        return retainedBytes(store);
+    }
+
+    private long storeAllocatedBytes() {
+        long before = allocatedBytes();
+        SwipeStateStore store = new SwipeStateStore();
+        store.ensureSize(ROWS);
+        long bytes = allocatedBytes() - before;
+        assertEquals(ROWS, store.size());
+        return bytes;
+    }
+
+    /**
+     * @return size of an object whose fields are primitives or primitive arrays, with its arrays
+     */
+    private static long retainedBytes(Object object) throws IllegalAccessException {
+        long bytes = 12;
+        for (Field field : object.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Class<?> type = field.getType();
+            if (type.isPrimitive()) {
+                bytes += primitiveBytes(type);
+                continue;
+            }
+            bytes += 4;
+            field.setAccessible(true);
+            Object array = field.get(object);
+            if (array != null) {
+                bytes += align(16 + (long) Array.getLength(array) * primitiveBytes(type.getComponentType()));
+            }
+        }
+        return align(bytes);
+    }
+
+    private static int primitiveBytes(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SwipeStateStore in sparse and dense mode, checked against a plain list of row states
+ */
+public class SwipeStateStoreTest {
+
+    // Row states of the model
+    private static final int CLOSED = 0;
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+
+    // Opening every 20th row of a few hundred stays below the switch threshold, every 3rd goes above it
+    private static final int SPARSE_STEP = 20;
+    private static final int DENSE_STEP = 3;
+    private static final int[] STEPS = {SPARSE_STEP, DENSE_STEP};
+
+    @Test
+    public void switchesToDenseAboveThresholdAndBackBelowIt() {
+        SwipeStateStore store = new SwipeStateStore();
+        store.ensureSize(200);
+        for (int i = 0; i < 32; i++) {
+            store.open(i * 6, i % 2 == 0);
+        }
+        assertFalse(store.isDense());
+        store.open(199, true);
+        assertTrue(store.isDense());
+        assertEquals(33, store.getOpenCount());
+
+        for (int i = 0; i < 17; i++) {
+            store.close(i * 6);
+        }
+        assertTrue(store.isDense());
+        store.close(17 * 6);
+        assertFalse(store.isDense());
+        assertEquals(15, store.getOpenCount());
+        for (int i = 18; i < 32; i++) {
+            assertTrue(store.isOpened(i * 6));
+            assertEquals(i % 2 == 0, store.isOpenedRight(i * 6));
+        }
+        assertTrue(store.isOpenedRight(199));
+    }
+
+    @Test
+    public void keepsWordEdges() {
+        for (int step : STEPS) {
+            SwipeStateStore store = new SwipeStateStore();
+            List<Integer> model = newModel(store, 300, step);
+            int[] edges = {0, 63, 64, 127, 128, 191, 192, 255, 256, 299};
+            for (int position : edges) {
+                store.open(position, position % 2 == 1);
+                model.set(position, position % 2 == 1 ? RIGHT : LEFT);
+            }
+            assertEquals(step == DENSE_STEP, store.isDense());
+            assertMatches(model, store);
+        }
+    }
+
+    @Test
+    public void insertShiftsAcrossWordEdges() {
+        for (int step : STEPS) {
+            for (int position : new int[]{0, 1, 63, 64, 65, 127, 128}) {
+                for (int count : new int[]{1, 63, 64, 65, 130}) {
+                    SwipeStateStore store = new SwipeStateStore();
+                    List<Integer> model = newModel(store, 260, step);
+                    store.insert(position, count);
+                    model.addAll(position, closedRows(count));
+                    assertMatches(model, store);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void removeRangeShiftsAcrossWordEdges() {
+        for (int step : STEPS) {
+            for (int position : new int[]{0, 1, 63, 64, 65, 127, 128, 259}) {
+                for (int count : new int[]{1, 63, 64, 65, 130}) {
+                    SwipeStateStore store = new SwipeStateStore();
+                    List<Integer> model = newModel(store, 260, step);
+                    store.removeRange(position, count);
+                    model.subList(position, Math.min(position + count, model.size())).clear();
+                    assertMatches(model, store);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void removeFirstAndLastPosition() {
+        for (int step : STEPS) {
+            SwipeStateStore store = new SwipeStateStore();
+            List<Integer> model = newModel(store, 130, step);
+            store.open(129, true);
+            model.set(129, RIGHT);
+
+            store.remove(0);
+            model.remove(0);
+            assertMatches(model, store);
+
+            store.remove(store.size() - 1);
+            model.remove(model.size() - 1);
+            assertMatches(model, store);
+
+            // Out of the store, nothing changes
+            store.remove(store.size());
+            assertMatches(model, store);
+        }
+    }
+
+    @Test
+    public void setSizeTruncatesOpenedRows() {
+        for (int step : STEPS) {
+            for (int size : new int[]{0, 1, 63, 64, 65, 128, 129}) {
+                SwipeStateStore store = new SwipeStateStore();
+                List<Integer> model = newModel(store, 300, step);
+                store.setSize(size);
+                model.subList(size, model.size()).clear();
+                assertMatches(model, store);
+
+                // Rows regrown after the truncation are closed
+                store.setSize(300);
+                model.addAll(closedRows(300 - size));
+                assertMatches(model, store);
+            }
+        }
+    }
+
+    @Test
+    public void moveKeepsStateOfMovedRows() {
+        int[][] moves = {{0, 100, 5}, {100, 0, 5}, {60, 70, 10}, {120, 2, 64}, {1, 64, 63}};
+        for (int step : STEPS) {
+            for (int[] move : moves) {
+                SwipeStateStore store = new SwipeStateStore();
+                List<Integer> model = newModel(store, 200, step);
+                store.move(move[0], move[1], move[2]);
+                List<Integer> moved = new ArrayList<Integer>(model.subList(move[0], move[0] + move[2]));
+                model.subList(move[0], move[0] + move[2]).clear();
+                model.addAll(move[1], moved);
+                assertMatches(model, store);
+            }
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchModel() {
+        Random random = new Random(47);
+        for (int round = 0; round < 50; round++) {
+            SwipeStateStore store = new SwipeStateStore();
+            List<Integer> model = new ArrayList<Integer>();
+            for (int step = 0; step < 400; step++) {
+                int size = model.size();
+                int position = size == 0 ? 0 : random.nextInt(size);
+                int count = 1 + random.nextInt(random.nextBoolean() ? 4 : 140);
+                switch (random.nextInt(6)) {
+                    case 0:
+                    case 1:
+                        boolean right = random.nextBoolean();
+                        growModel(model, position + 1);
+                        store.open(position, right);
+                        model.set(position, right ? RIGHT : LEFT);
+                        break;
+                    case 2:
+                        store.close(position);
+                        if (position < size) {
+                            model.set(position, CLOSED);
+                        }
+                        break;
+                    case 3:
+                        store.insert(position, count);
+                        if (position >= size) {
+                            growModel(model, position + count);
+                        } else {
+                            model.addAll(position, closedRows(count));
+                        }
+                        break;
+                    case 4:
+                        store.removeRange(position, count);
+                        if (position < size) {
+                            model.subList(position, Math.min(position + count, size)).clear();
+                        }
+                        break;
+                    default:
+                        int newSize = random.nextInt(size + 200);
+                        store.setSize(newSize);
+                        if (newSize < size) {
+                            model.subList(newSize, size).clear();
+                        } else {
+                            growModel(model, newSize);
+                        }
+                        break;
+                }
+                assertMatches(model, store);
+            }
+        }
+    }
+
+    /**
+     * Sizes the store and opens every step-th row, alternating sides
+     *
+     * @return model of the store
+     */
+    private static List<Integer> newModel(SwipeStateStore store, int size, int step) {
+        store.ensureSize(size);
+        List<Integer> model = new ArrayList<Integer>(closedRows(size));
+        for (int i = 0; i < size; i += step) {
+            boolean right = (i / step) % 2 == 0;
+            store.open(i, right);
+            model.set(i, right ? RIGHT : LEFT);
+        }
+        assertEquals(step == DENSE_STEP, store.isDense());
+        return model;
+    }
+
+    private static List<Integer> closedRows(int count) {
+        List<Integer> rows = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(CLOSED);
+        }
+        return rows;
+    }
+
+    private static void growModel(List<Integer> model, int size) {
+        while (model.size() < size) {
+            model.add(CLOSED);
+        }
+    }
+
+    private static void assertMatches(List<Integer> model, SwipeStateStore store) {
+        assertEquals(model.size(), store.size());
+        int openCount = 0;
+        int expectedNext = -1;
+        for (int position = model.size() - 1; position >= 0; position--) {
+            int state = model.get(position);
+            assertEquals("opened at " + position, state != CLOSED, store.isOpened(position));
+            assertEquals("right at " + position, state == RIGHT, store.isOpenedRight(position));
+            if (state != CLOSED) {
+                openCount++;
+                expectedNext = position;
+            }
+            assertEquals("next opened from " + position, expectedNext, store.nextOpened(position));
+        }
+        assertEquals(openCount, store.getOpenCount());
+        assertFalse(store.isOpened(model.size()));
+        assertEquals(-1, store.nextOpened(model.size()));
+    }
+}
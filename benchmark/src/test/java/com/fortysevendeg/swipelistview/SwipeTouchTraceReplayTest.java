@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Touch traces replayed through the gesture engine, checked against the commands a recording
+ * Host receives. Every trace is also replayed after a round trip through its binary format.
+ */
+public class SwipeTouchTraceReplayTest {
+
+    private static final int WIDTH = 1080;
+
+    private SwipeTouchTrace trace;
+    private int swipeActionLeft;
+    private boolean deferTranslation;
+
+    @Before
+    public void setUp() {
+        trace = new SwipeTouchTrace();
+        swipeActionLeft = SwipeGestureEngine.ACTION_REVEAL;
+        deferTranslation = false;
+    }
+
+    @Test
+    public void dragPastHalfWidthOpensAndClosesRow() throws IOException {
+        long time = swipe(0, 2, 100, 80, 8, 0);
+        swipe(time, 2, 740, -80, 8, 0);
+        assertReplay(
+                "start 2 closed left",
+                "translate 2 80.0", "translate 2 160.0", "translate 2 240.0", "translate 2 320.0",
+                "translate 2 400.0", "translate 2 480.0", "translate 2 560.0", "translate 2 640.0",
+                "settle 2 out right 0",
+                "start 2 opened right",
+                "translate 2 1000.0", "translate 2 920.0", "translate 2 840.0", "translate 2 760.0",
+                "translate 2 680.0", "translate 2 600.0", "translate 2 520.0", "translate 2 440.0",
+                "settle 2 out left 0");
+    }
+
+    @Test
+    public void shortDragReturnsRow() throws IOException {
+        swipe(0, 4, 500, 40, 3, 0);
+        assertReplay(
+                "start 4 closed left",
+                "translate 4 40.0", "translate 4 80.0", "translate 4 120.0",
+                "settle 4 back left 0");
+    }
+
+    @Test
+    public void flingDismissesRow() throws IOException {
+        swipeActionLeft = SwipeGestureEngine.ACTION_DISMISS;
+        swipe(0, 5, 600, -30, 3, -3000);
+        assertReplay(
+                "start 5 closed left",
+                "translate 5 -30.0 dismiss", "translate 5 -60.0 dismiss", "translate 5 -90.0 dismiss",
+                "settle 5 out left dismiss -3000");
+    }
+
+    @Test
+    public void flingAboveMaximumVelocityIsIgnoredAndClamped() throws IOException {
+        swipe(0, 1, 300, 30, 2, 50000);
+        assertReplay(
+                "start 1 closed left",
+                "translate 1 30.0", "translate 1 60.0",
+                "settle 1 back left 24000");
+    }
+
+    @Test
+    public void verticalScrollSendsNothing() throws IOException {
+        trace.add(SwipeTouchTrace.ACTION_DOWN, 0, 500, 500, 0, 0);
+        trace.setLastDownPosition(3);
+        for (int i = 1; i <= 6; i++) {
+            trace.add(SwipeTouchTrace.ACTION_MOVE, i * 8, 500 + i * 6, 500 + i * 60, 0, 0);
+            trace.setLastVelocity(750, 7500);
+        }
+        trace.add(SwipeTouchTrace.ACTION_UP, 56, 536, 860, 0, 0);
+        trace.setLastVelocity(750, 7500);
+        assertReplay();
+    }
+
+    @Test
+    public void cancelReturnsSwipedRow() throws IOException {
+        trace.add(SwipeTouchTrace.ACTION_DOWN, 0, 200, 500, 0, 0);
+        trace.setLastDownPosition(7);
+        trace.add(SwipeTouchTrace.ACTION_MOVE, 8, 250, 500, 0, 0);
+        trace.setLastVelocity(6250, 0);
+        trace.add(SwipeTouchTrace.ACTION_CANCEL, 16, 250, 500, 0, 0);
+        assertReplay("start 7 closed left", "translate 7 50.0", "cancel 7");
+    }
+
+    @Test
+    public void downOutsideOfRowsIsIgnored() throws IOException {
+        trace.add(SwipeTouchTrace.ACTION_DOWN, 0, 200, 500, 0, 0);
+        trace.add(SwipeTouchTrace.ACTION_MOVE, 8, 400, 500, 0, 0);
+        trace.setLastVelocity(25000, 0);
+        trace.add(SwipeTouchTrace.ACTION_UP, 16, 600, 500, 0, 0);
+        trace.setLastVelocity(25000, 0);
+        assertReplay();
+    }
+
+    @Test
+    public void deferredTranslationsArePending() throws IOException {
+        deferTranslation = true;
+        swipe(0, 0, 100, 50, 2, 0);
+        assertReplay("start 0 closed left", "pending 0", "pending 0", "settle 0 back left 0");
+    }
+
+    @Test
+    public void batchedSamplesDontSendCommands() throws IOException {
+        trace.add(SwipeTouchTrace.ACTION_DOWN, 0, 100, 500, 0, 0);
+        trace.setLastDownPosition(6);
+        trace.add(SwipeTouchTrace.ACTION_HISTORY, 4, 120, 500, 0, 0);
+        trace.add(SwipeTouchTrace.ACTION_MOVE, 8, 140.5f, 500, 0, 0);
+        trace.setLastVelocity(5000, 0);
+        trace.add(SwipeTouchTrace.ACTION_UP, 16, 160, 500, 0, 0);
+        trace.setLastVelocity(100, 0);
+        assertReplay("start 6 closed left", "translate 6 40.5", "settle 6 back left 100");
+    }
+
+    @Test
+    public void truncatedTraceIsRejected() {
+        swipe(0, 2, 100, -80, 3, -2000);
+        byte[] bytes = trace.toByteArray();
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                SwipeTouchTrace.fromByteArray(Arrays.copyOf(bytes, length));
+                fail("Read a trace truncated to " + length + " bytes");
+            } catch (IOException expected) {
+                // Rejected
+            }
+        }
+    }
+
+    /**
+     * Adds a horizontal swipe: a down, moves 8 ms apart and an up
+     *
+     * @param stepX     horizontal move of each sample
+     * @param moves     number of moves
+     * @param velocityX velocity of the up event in pixels per second
+     * @return time after the swipe
+     */
+    private long swipe(long time, int position, float x, float stepX, int moves, float velocityX) {
+        trace.add(SwipeTouchTrace.ACTION_DOWN, time, x, 500, 0, 0);
+        trace.setLastDownPosition(position);
+        for (int i = 0; i < moves; i++) {
+            time += 8;
+            x += stepX;
+            trace.add(SwipeTouchTrace.ACTION_MOVE, time, x, 500, 0, 0);
+            trace.setLastVelocity(stepX * 125, 0);
+        }
+        time += 8;
+        trace.add(SwipeTouchTrace.ACTION_UP, time, x, 500, 0, 0);
+        trace.setLastVelocity(velocityX, 0);
+        return time + 100;
+    }
+
+    private void assertReplay(String... expected) throws IOException {
+        List<String> commands = Arrays.asList(expected);
+        assertEquals(commands, replay(trace));
+        assertEquals(commands, replay(SwipeTouchTrace.fromByteArray(trace.toByteArray())));
+    }
+
+    /**
+     * @return commands sent by the engine, in order
+     */
+    private List<String> replay(SwipeTouchTrace trace) {
+        RecordingHost host = new RecordingHost();
+        SwipeGestureEngine engine = new SwipeGestureEngine(host, 24, 150, 24000);
+        engine.setViewWidth(WIDTH);
+        engine.setSwipeActionLeft(swipeActionLeft);
+        engine.setDeferTranslation(deferTranslation);
+        trace.replay(engine);
+        return host.commands;
+    }
+
+    /**
+     * Host that records its commands and opens or closes rows when they settle out
+     */
+    static class RecordingHost implements SwipeGestureEngine.Host {
+
+        final List<String> commands = new ArrayList<String>();
+        private final SwipeStateStore store = new SwipeStateStore();
+
+        @Override
+        public boolean isOpened(int position) {
+            return store.isOpened(position);
+        }
+
+        @Override
+        public boolean isOpenedRight(int position) {
+            return store.isOpenedRight(position);
+        }
+
+        @Override
+        public int getSwipeMode(int position) {
+            return -1;
+        }
+
+        @Override
+        public void onSwipeStart(int position, boolean opened, boolean right) {
+            commands.add("start " + position + (opened ? " opened" : " closed") + (right ? " right" : " left"));
+        }
+
+        @Override
+        public void onTranslate(int position, float deltaX, boolean dismiss) {
+            commands.add("translate " + position + " " + deltaX + (dismiss ? " dismiss" : ""));
+        }
+
+        @Override
+        public void onTranslationPending(int position) {
+            commands.add("pending " + position);
+        }
+
+        @Override
+        public void onSettle(int position, boolean moveOut, boolean moveToRight, boolean dismiss, float velocityX) {
+            commands.add("settle " + position + (moveOut ? " out" : " back") + (moveToRight ? " right" : " left")
+                    + (dismiss ? " dismiss" : "") + " " + (int) velocityX);
+            if (moveOut && !dismiss) {
+                if (store.isOpened(position)) {
+                    store.close(position);
+                } else {
+                    store.open(position, moveToRight);
+                }
+            }
+        }
+
+        @Override
+        public void onCancel(int position) {
+            commands.add("cancel " + position);
+        }
+    }
+}
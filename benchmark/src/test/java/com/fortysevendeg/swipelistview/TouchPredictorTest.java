@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Extrapolation of the finger position by TouchPredictor, and the errors it measures
+ */
+public class TouchPredictorTest {
+
+    private static final float DELTA = 1e-3f;
+
+    private TouchPredictor predictor;
+
+    @Before
+    public void setUp() {
+        predictor = new TouchPredictor();
+    }
+
+    @Test
+    public void linearMotionIsExtrapolatedExactly() {
+        // 2 px per ms
+        addSamples(0, 40, 0, 2, 0);
+        assertEquals(112, predictor.predict(56, TouchPredictor.LINEAR), DELTA);
+        assertEquals(112, predictor.predict(56, TouchPredictor.QUADRATIC), DELTA);
+    }
+
+    @Test
+    public void quadraticFitFollowsAcceleration() {
+        // x = 0.05 t^2
+        addSamples(0, 40, 0, 0, 0.05f);
+        assertEquals(0.05f * 56 * 56, predictor.predict(56, TouchPredictor.QUADRATIC), 0.01f);
+        // A line lags behind an accelerating finger
+        assertTrue(predictor.predict(56, TouchPredictor.LINEAR) < 0.05f * 56 * 56 - 1);
+    }
+
+    @Test
+    public void newestPositionWithoutEnoughData() {
+        assertEquals(0, predictor.predict(10, TouchPredictor.LINEAR), 0f);
+        predictor.addSample(0, 30);
+        assertEquals(30, predictor.predict(10, TouchPredictor.LINEAR), 0f);
+        predictor.addSample(8, 46);
+        assertEquals(46, predictor.predict(16, TouchPredictor.NONE), 0f);
+        assertEquals(46, predictor.predict(8, TouchPredictor.LINEAR), 0f);
+        // Two samples are enough for a line, a quadratic fit falls back to it
+        assertEquals(62, predictor.predict(16, TouchPredictor.QUADRATIC), DELTA);
+    }
+
+    @Test
+    public void samplesOlderThanTheFitWindowAreIgnored() {
+        // The finger rests, then moves at 2 px per ms from 100 ms
+        predictor.addSample(0, 0);
+        predictor.addSample(10, 0);
+        predictor.addSample(20, 0);
+        addSamples(100, 140, -200, 2, 0);
+        assertEquals(112, predictor.predict(156, TouchPredictor.LINEAR), DELTA);
+    }
+
+    @Test
+    public void ringBufferKeepsTheNewestSamples() {
+        addSamples(0, 400, 10, -1.5f, 0);
+        assertEquals(10 - 1.5f * 416, predictor.predict(416, TouchPredictor.LINEAR), DELTA);
+        assertEquals(10 - 1.5f * 400, predictor.newestPosition(), DELTA);
+    }
+
+    @Test
+    public void predictionsAreComparedWithTheRealPosition() {
+        addSamples(0, 40, 0, 2, 0);
+        // The next sample is where the prediction expected it, the last known sample was 16 px behind
+        predictor.predict(48, TouchPredictor.LINEAR);
+        predictor.addSample(48, 96);
+        // The real position at 52 ms is interpolated between the samples around it
+        predictor.predict(52, TouchPredictor.LINEAR);
+        predictor.addSample(56, 112);
+        assertEquals(0, predictor.getMeanPredictionError(), DELTA);
+        assertEquals(12, predictor.getMeanUnpredictedError(), DELTA);
+    }
+
+    @Test
+    public void resetForgetsSamplesButNotErrors() {
+        addSamples(0, 40, 0, 2, 0);
+        predictor.predict(48, TouchPredictor.LINEAR);
+        predictor.addSample(48, 100);
+        predictor.reset();
+        assertFalse(predictor.hasSamples());
+        assertEquals(0, predictor.predict(60, TouchPredictor.LINEAR), 0f);
+        assertEquals(4, predictor.getMeanPredictionError(), DELTA);
+        assertEquals(20, predictor.getMeanUnpredictedError(), DELTA);
+    }
+
+    /**
+     * Adds samples 8 ms apart at x = offset + speed * t + acceleration * t^2
+     */
+    private void addSamples(long from, long to, float offset, float speed, float acceleration) {
+        for (long t = from; t <= to; t += 8) {
+            predictor.addSample(t, offset + speed * t + acceleration * t * t);
+        }
+    }
+}
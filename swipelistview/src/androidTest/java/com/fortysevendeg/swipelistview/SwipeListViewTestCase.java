@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of the tests that drive a SwipeListView on the main thread. The list is shown in the window of
+ * a test activity, so its animations run. Touch events are passed to its touch listener with raw
+ * coordinates equal to list coordinates. Rows are built in code with a back view under a front view.
+ */
+public abstract class SwipeListViewTestCase extends ActivityInstrumentationTestCase2<SwipeListViewTestActivity> {
+
+    static final int WIDTH = 480;
+    static final int HEIGHT = 800;
+    static final int ROW_HEIGHT = 80;
+    static final int ROWS = 100;
+    static final int FRONT_VIEW_ID = 1;
+    static final int BACK_VIEW_ID = 2;
+    static final long ANIMATION_TIME = 50;
+    static final long TIMEOUT = 5000;
+
+    SwipeListView listView;
+    RecordingListener listener;
+
+    protected SwipeListViewTestCase() {
+        super(SwipeListViewTestActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        final SwipeListViewTestActivity activity = getActivity();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                listView = new SwipeListView(activity, BACK_VIEW_ID, FRONT_VIEW_ID);
+                listView.setAnimationTime(ANIMATION_TIME);
+                listener = new RecordingListener();
+                listView.setSwipeListViewListener(listener);
+                listView.setAdapter(new RowAdapter());
+                activity.setContentView(listView, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+            }
+        });
+        // The first layout binds the rows
+        getInstrumentation().waitForIdleSync();
+    }
+
+    /**
+     * @param position visible item
+     * @return row showing the item
+     */
+    View getRow(int position) {
+        return listView.getChildAt(position - listView.getFirstVisiblePosition());
+    }
+
+    /**
+     * @param position visible item
+     * @return front view of the row showing the item
+     */
+    View getFrontView(int position) {
+        return getRow(position).findViewById(FRONT_VIEW_ID);
+    }
+
+    /**
+     * @param position visible item
+     * @return vertical center of its row
+     */
+    float getRowCenterY(int position) {
+        return getRow(position).getTop() + ROW_HEIGHT / 2;
+    }
+
+    /**
+     * Obtains an event at a point of the list, which is recycled by the caller
+     */
+    static MotionEvent obtainEvent(long downTime, long time, int action, float x, float y) {
+        return MotionEvent.obtain(downTime, time, action, x, y, 0);
+    }
+
+    /**
+     * Rows of a fixed height with a back view and a front view
+     */
+    class RowAdapter extends BaseAdapter {
+
+        @Override
+        public int getCount() {
+            return ROWS;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return position;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            if (convertView == null) {
+                FrameLayout row = new FrameLayout(parent.getContext());
+                row.setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+                View back = new View(parent.getContext());
+                back.setId(BACK_VIEW_ID);
+                row.addView(back, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+                View front = new View(parent.getContext());
+                front.setId(FRONT_VIEW_ID);
+                row.addView(front, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+                convertView = row;
+            }
+            listView.recycle(convertView, position);
+            return convertView;
+        }
+    }
+
+    /**
+     * Records the opened, closed and dismissed items, and lets the test thread wait for them
+     */
+    static class RecordingListener extends SimpleSwipeListViewListener {
+
+        final List<String> events = new ArrayList<String>();
+        final List<int[]> dismissArrays = new ArrayList<int[]>();
+
+        @Override
+        public synchronized void onOpened(int position, boolean toRight) {
+            events.add("opened " + position + (toRight ? " right" : " left"));
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void onClosed(int position, boolean fromRight) {
+            events.add("closed " + position + (fromRight ? " right" : " left"));
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void onDismiss(int[] reverseSortedPositions) {
+            StringBuilder event = new StringBuilder("dismissed");
+            for (int position : reverseSortedPositions) {
+                event.append(' ').append(position);
+            }
+            events.add(event.toString());
+            dismissArrays.add(reverseSortedPositions);
+            notifyAll();
+        }
+
+        /**
+         * Waits until a number of callbacks were recorded
+         *
+         * @return recorded callbacks
+         */
+        synchronized List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+            while (events.size() < count) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new AssertionError("Expected " + count + " callbacks, got " + events);
+                }
+                wait(remaining);
+            }
+            return new ArrayList<String>(events);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import android.os.Debug;
+import android.os.SystemClock;
+import android.test.UiThreadTest;
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+
+/**
+ * Allocations of the touch listener, counted by the device runtime. A drag, from the down to its
+ * last move, must not allocate once the velocity tracker, the pooled events and the row holders
+ * exist. Lifting the finger starts framework animators, which allocate on their own, so the dismiss
+ * bookkeeping that follows them is checked for reuse instead.
+ */
+public class SwipeListViewTouchListenerAllocationTest extends SwipeListViewTestCase {
+
+    private static final int WARM_UP_ROWS = 3;
+    private static final int MOVES = 16;
+
+    @UiThreadTest
+    public void testDragsDontAllocate() {
+        SwipeListViewTouchListener touchListener = listView.getTouchListener();
+        int rows = listView.getChildCount();
+        for (int i = 0; i < rows; i++) {
+            // Holders are created the first time a row is touched
+            touchListener.getFrontView(listView.getChildAt(i));
+        }
+        for (int position = 0; position < WARM_UP_ROWS; position++) {
+            drag(touchListener, position, position % 2 == 0 ? 12 : -12);
+        }
+        int allocations = 0;
+        for (int position = WARM_UP_ROWS; position < rows; position++) {
+            allocations += drag(touchListener, position, position % 2 == 0 ? 12 : -12);
+        }
+        assertEquals(0, allocations);
+    }
+
+    public void testDismissReportsReuseTheirPositions() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                listView.setSwipeActionLeft(SwipeListView.SWIPE_ACTION_DISMISS);
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            final int position = i;
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    drag(listView.getTouchListener(), position, -20);
+                }
+            });
+            listener.await(i + 1);
+        }
+        assertEquals(Arrays.asList("dismissed 0", "dismissed 1", "dismissed 2"), listener.events);
+        // The items stay in the adapter, so every dismissed row is back to its height
+        final int[] heights = new int[3];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int position = 0; position < heights.length; position++) {
+                    heights[position] = getRow(position).getLayoutParams().height;
+                }
+            }
+        });
+        assertTrue(Arrays.equals(new int[]{ROW_HEIGHT, ROW_HEIGHT, ROW_HEIGHT}, heights));
+        assertSame(listener.dismissArrays.get(0), listener.dismissArrays.get(1));
+        assertSame(listener.dismissArrays.get(0), listener.dismissArrays.get(2));
+    }
+
+    /**
+     * Drags a row sideways, with a sample batched before each move, and lifts the finger
+     *
+     * @param step horizontal move of each event
+     * @return objects allocated from the down to the last move
+     */
+    private int drag(SwipeListViewTouchListener touchListener, int position, float step) {
+        float x = WIDTH / 2;
+        float y = getRowCenterY(position);
+        long downTime = SystemClock.uptimeMillis();
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        MotionEvent event = obtainEvent(downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+        touchListener.onTouch(listView, event);
+        event.recycle();
+        for (int i = 1; i <= MOVES; i++) {
+            long time = downTime + i * 8;
+            event = obtainEvent(downTime, time - 4, MotionEvent.ACTION_MOVE, x + step / 2, y);
+            x += step;
+            event.addBatch(time, x, y, 1f, 1f, 0);
+            touchListener.onTouch(listView, event);
+            event.recycle();
+        }
+        Debug.stopAllocCounting();
+        int allocations = Debug.getThreadAllocCount();
+        event = obtainEvent(downTime, downTime + (MOVES + 1) * 8, MotionEvent.ACTION_UP, x, y);
+        touchListener.onTouch(listView, event);
+        event.recycle();
+        return allocations;
+    }
+}
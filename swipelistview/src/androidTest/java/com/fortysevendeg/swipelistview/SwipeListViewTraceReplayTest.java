@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Touch traces replayed into a SwipeListView shown in a window. The replayed events go through
+ * dispatchTouchEvent, the list's touch handling and the settle animations, so the rows end up opened,
+ * closed or dismissed as on a device, and a recorder set on the list records them back.
+ */
+public class SwipeListViewTraceReplayTest extends SwipeListViewTestCase {
+
+    private static final int MOVES = 8;
+    private static final float STEP = 40;
+
+    public void testReplayedSwipesOpenAndCloseRow() throws Exception {
+        replay(2, 100, STEP);
+        assertEquals(Collections.singletonList("opened 2 right"), listener.await(1));
+        assertEquals(WIDTH, getFrontTranslationX(2), 0f);
+
+        replay(2, 100 + MOVES * STEP, -STEP);
+        assertEquals(Arrays.asList("opened 2 right", "closed 2 right"), listener.await(2));
+        assertEquals(0f, getFrontTranslationX(2), 0f);
+    }
+
+    public void testReplayedSwipeDismissesRow() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                listView.setSwipeActionLeft(SwipeListView.SWIPE_ACTION_DISMISS);
+            }
+        });
+        replay(5, WIDTH - 60, -STEP);
+        assertEquals(Collections.singletonList("dismissed 5"), listener.await(1));
+    }
+
+    public void testRecordedTraceReplaysTheSameSwipe() throws Exception {
+        final SwipeTouchTrace trace = new SwipeTouchTrace();
+        final SwipeTouchTrace recorder = new SwipeTouchTrace();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                addSwipe(trace, 3, 100, STEP, true);
+                listView.setTouchTraceRecorder(recorder);
+                listView.replayTouchTrace(trace);
+                listView.setTouchTraceRecorder(null);
+            }
+        });
+        assertEquals(Collections.singletonList("opened 3 right"), listener.await(1));
+
+        assertEquals(trace.size(), recorder.size());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.getAction(i), recorder.getAction(i));
+            assertEquals(trace.getTime(i) - trace.getTime(0), recorder.getTime(i) - recorder.getTime(0));
+            assertEquals(trace.getRawX(i), recorder.getRawX(i), 0f);
+            assertEquals(trace.getRawY(i), recorder.getRawY(i), 0f);
+        }
+        assertEquals(3, recorder.getPosition(0));
+        assertTrue(recorder.getVelocityX(recorder.size() - 1) > 0);
+
+        // The recorded trace, read back from its binary form, opens the row again once it is closed
+        final SwipeTouchTrace recorded = SwipeTouchTrace.fromByteArray(recorder.toByteArray());
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                listView.closeAnimate(3);
+            }
+        });
+        listener.await(2);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                listView.replayTouchTrace(recorded);
+            }
+        });
+        assertEquals(Arrays.asList("opened 3 right", "closed 3 right", "opened 3 right"), listener.await(3));
+        assertEquals(WIDTH, getFrontTranslationX(3), 0f);
+    }
+
+    /**
+     * Replays a horizontal swipe over a row
+     */
+    private void replay(final int position, final float x, final float step) {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SwipeTouchTrace trace = new SwipeTouchTrace();
+                addSwipe(trace, position, x, step, false);
+                listView.replayTouchTrace(trace);
+            }
+        });
+    }
+
+    /**
+     * Adds a down over a row, moves 8 ms apart and an up. Called on the main thread, which lays out the rows.
+     *
+     * @param step    horizontal move of each event
+     * @param batched true to add a batched sample before each move
+     */
+    private void addSwipe(SwipeTouchTrace trace, int position, float x, float step, boolean batched) {
+        float y = getRowCenterY(position);
+        long time = 0;
+        trace.add(SwipeTouchTrace.ACTION_DOWN, time, x, y, 0, 0);
+        for (int i = 0; i < MOVES; i++) {
+            if (batched) {
+                trace.add(SwipeTouchTrace.ACTION_HISTORY, time + 4, x + step / 2, y, 0, 0);
+            }
+            time += 8;
+            x += step;
+            trace.add(SwipeTouchTrace.ACTION_MOVE, time, x, y, 0, 0);
+        }
+        trace.add(SwipeTouchTrace.ACTION_UP, time + 8, x, y, 0, 0);
+    }
+
+    private float getFrontTranslationX(final int position) {
+        final float[] translationX = new float[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                translationX[0] = getFrontView(position).getTranslationX();
+            }
+        });
+        return translationX[0];
+    }
+}
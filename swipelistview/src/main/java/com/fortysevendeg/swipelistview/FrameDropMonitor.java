@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Counts display frames and dropped frames into a SwipeMetrics while a row is dragged or settling.
+ *
+ * Choreographer only exists since Jelly Bean, so this class must only be loaded on API 16 and up.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class FrameDropMonitor implements Choreographer.FrameCallback {
+
+    private SwipeMetrics metrics;
+    private boolean running;
+    private boolean dragging;
+    private long settleDeadline;
+    private long lastFrameTimeNanos;
+
+    /**
+     * Starts or updates the monitor
+     *
+     * @param metrics        metrics to record into
+     * @param dragging       true while the finger drags a row
+     * @param settleDeadline uptime in milliseconds after which settle frames are no longer counted
+     */
+    void update(SwipeMetrics metrics, boolean dragging, long settleDeadline) {
+        this.metrics = metrics;
+        this.dragging = dragging;
+        this.settleDeadline = settleDeadline;
+        if (!dragging && SystemClock.uptimeMillis() >= settleDeadline) {
+            stop();
+        } else if (!running) {
+            running = true;
+            lastFrameTimeNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stops counting frames
+     */
+    void stop() {
+        if (running) {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        if (!dragging && SystemClock.uptimeMillis() >= settleDeadline) {
+            running = false;
+            return;
+        }
+        if (lastFrameTimeNanos != 0) {
+            long frameInterval = metrics.getFrameIntervalNanos();
+            long missed = (frameTimeNanos - lastFrameTimeNanos + frameInterval / 2) / frameInterval - 1;
+            metrics.recordFrame(!dragging, (int) Math.max(0, missed));
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for arrays of list positions
+ */
+final class PositionArrays {
+
+    private PositionArrays() {
+    }
+
+    /**
+     * Returns a copy of positions sorted by descending position, without duplicates
+     *
+     * @param positions positions of list
+     * @return sorted positions
+     */
+    static int[] sortDescending(int[] positions) {
+        int[] sorted = positions.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        reverse(sorted, count);
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Sorts positions in place by descending position, keeping duplicates
+     *
+     * @param positions positions of list
+     */
+    static void sortDescendingInPlace(int[] positions) {
+        Arrays.sort(positions);
+        reverse(positions, positions.length);
+    }
+
+    private static void reverse(int[] values, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
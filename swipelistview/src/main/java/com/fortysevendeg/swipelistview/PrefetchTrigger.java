@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+/**
+ * Decides when a list is close enough to its end to load the next page.
+ *
+ * It fires when the rows left below the last visible one drop to the prefetch distance. While the
+ * list scrolls, the rows it will cover during the lookahead time are added to that distance, so fast
+ * flings fire earlier. It fires once per crossing: again only when the item count changes or the
+ * list is scrolled back by a screen.
+ */
+final class PrefetchTrigger {
+
+    /**
+     * Scroll velocity is projected this far ahead (ms)
+     */
+    static final long DEFAULT_LOOKAHEAD = 500;
+
+    private int distance;
+    private long lookahead = DEFAULT_LOOKAHEAD;
+
+    private long lastTime;
+    private float lastRow;
+    private float rowsPerMillisecond;
+
+    private int firedCount = -1;
+    private int firedRemaining;
+
+    /**
+     * @param distance rows left below the last visible one when the next page is requested
+     */
+    PrefetchTrigger(int distance) {
+        this.distance = distance;
+    }
+
+    void setDistance(int distance) {
+        this.distance = distance;
+    }
+
+    int getDistance() {
+        return distance;
+    }
+
+    /**
+     * @param lookahead how far ahead (ms) the scroll velocity is projected, 0 to ignore the velocity
+     */
+    void setLookahead(long lookahead) {
+        this.lookahead = Math.max(0, lookahead);
+    }
+
+    /**
+     * Forgets the scroll velocity, when the list stops
+     */
+    void onScrollIdle() {
+        lastTime = 0;
+        rowsPerMillisecond = 0;
+    }
+
+    /**
+     * @param time         uptime in milliseconds
+     * @param row          first visible row, with the hidden fraction of its height
+     * @param visibleCount number of visible rows
+     * @param totalCount   number of rows of the list
+     * @param scrolling    true if the list is being scrolled or flung, false for layout changes
+     * @return true if the next page should be requested now
+     */
+    boolean onScroll(long time, float row, int visibleCount, int totalCount, boolean scrolling) {
+        if (scrolling && lastTime != 0 && time > lastTime) {
+            float velocity = (row - lastRow) / (time - lastTime);
+            rowsPerMillisecond = (rowsPerMillisecond + velocity) / 2;
+        }
+        if (scrolling) {
+            lastTime = time;
+            lastRow = row;
+        }
+        if (totalCount == 0) {
+            return false;
+        }
+        int remaining = totalCount - ((int) row + visibleCount);
+        if (firedCount == totalCount) {
+            if (remaining <= firedRemaining + visibleCount) {
+                return false;
+            }
+            firedCount = -1;
+        }
+        int ahead = (int) Math.max(0, rowsPerMillisecond * lookahead);
+        if (remaining > distance + ahead) {
+            return false;
+        }
+        firedCount = totalCount;
+        firedRemaining = Math.max(0, remaining);
+        return true;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+/**
+ * Damped spring that brings a row to its target, starting from the velocity the row had when the
+ * finger was lifted. It gives the time the row takes to come to rest, and the progress toward the
+ * target at any fraction of that time, so an animator can run it as an interpolator.
+ *
+ * Closed-form solution of x'' = -stiffness * x - 2 * dampingRatio * sqrt(stiffness) * x', with x the
+ * distance to the target in pixels and t in seconds. No Android dependency.
+ */
+final class SpringSettle {
+
+    /**
+     * The row is at rest closer than this to its target, in pixels
+     */
+    private static final double REST_DISTANCE = 0.5;
+
+    /**
+     * The row is at rest slower than this, in pixels per second
+     */
+    private static final double REST_VELOCITY = 20;
+
+    /**
+     * Longest settle, in milliseconds, whatever the spring
+     */
+    static final long MAX_DURATION = 2000;
+
+    /**
+     * Time step in milliseconds used to find when the row comes to rest
+     */
+    private static final long STEP = 4;
+
+    private double omega;
+    private double dampingRatio;
+
+    private double startOffset;
+    private double startVelocity;
+    private boolean stopAtTarget;
+    private long duration;
+
+    /**
+     * @param stiffness    spring stiffness, higher is faster
+     * @param dampingRatio 1 for no bounce, lower bounces around the target, higher approaches it slower
+     */
+    SpringSettle(float stiffness, float dampingRatio) {
+        setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * @param stiffness    spring stiffness, higher is faster
+     * @param dampingRatio 1 for no bounce, lower bounces around the target, higher approaches it slower
+     */
+    void setSpring(float stiffness, float dampingRatio) {
+        this.omega = Math.sqrt(Math.max(stiffness, 1f));
+        this.dampingRatio = Math.max(dampingRatio, 0.01f);
+    }
+
+    /**
+     * Launches the spring
+     *
+     * @param offset       distance from the row to its target, in pixels
+     * @param velocity     velocity of the row, in pixels per second
+     * @param stopAtTarget true to end the first time the row reaches the target, when bouncing
+     *                     around it would not be seen, like rows moving out of the list
+     * @return time in milliseconds the row takes to come to rest
+     */
+    long start(float offset, float velocity, boolean stopAtTarget) {
+        this.startOffset = offset;
+        this.startVelocity = velocity;
+        this.stopAtTarget = stopAtTarget;
+        duration = 0;
+        if (Math.abs(offset) < REST_DISTANCE) {
+            // Nothing to animate, a fling alone would move the row away from where it must end
+            return duration;
+        }
+        for (long time = STEP; time <= MAX_DURATION; time += STEP) {
+            double t = time / 1000.0;
+            double x = offsetAt(t);
+            if (stopAtTarget && (x == 0 || (x < 0) != (offset < 0))) {
+                duration = time;
+                return duration;
+            }
+            double v = (offsetAt(t + 0.001) - x) * 1000;
+            if (Math.abs(x) < REST_DISTANCE && Math.abs(v) < REST_VELOCITY) {
+                duration = time;
+                return duration;
+            }
+        }
+        duration = MAX_DURATION;
+        return duration;
+    }
+
+    /**
+     * @return duration computed by the last {@link #start(float, float, boolean)}
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Progress toward the target
+     *
+     * @param fraction elapsed fraction of the duration, between 0 and 1
+     * @return 0 at the start, 1 on the target. It goes past 1 when the spring bounces.
+     */
+    float progress(float fraction) {
+        if (fraction >= 1f || duration == 0) {
+            return 1f;
+        }
+        double progress = 1 - offsetAt(fraction * duration / 1000.0) / startOffset;
+        return (float) (stopAtTarget ? Math.min(progress, 1) : progress);
+    }
+
+    /**
+     * @param fraction elapsed fraction of the duration, between 0 and 1
+     * @return velocity of the row in pixels per second, 0 once at rest
+     */
+    float velocity(float fraction) {
+        if (fraction >= 1f || duration == 0) {
+            return 0f;
+        }
+        double t = fraction * duration / 1000.0;
+        return (float) ((offsetAt(t + 0.001) - offsetAt(t)) * 1000);
+    }
+
+    /**
+     * @param t seconds since the start
+     * @return distance to the target
+     */
+    private double offsetAt(double t) {
+        double x0 = startOffset;
+        double v0 = startVelocity;
+        if (dampingRatio < 1) {
+            double dampedOmega = omega * Math.sqrt(1 - dampingRatio * dampingRatio);
+            return Math.exp(-dampingRatio * omega * t) * (x0 * Math.cos(dampedOmega * t)
+                    + (v0 + dampingRatio * omega * x0) / dampedOmega * Math.sin(dampedOmega * t));
+        }
+        if (dampingRatio == 1) {
+            return (x0 + (v0 + omega * x0) * t) * Math.exp(-omega * t);
+        }
+        double root = omega * Math.sqrt(dampingRatio * dampingRatio - 1);
+        double r1 = -dampingRatio * omega + root;
+        double r2 = -dampingRatio * omega - root;
+        double c2 = (v0 - r1 * x0) / (r2 - r1);
+        return (x0 - c2) * Math.exp(r1 * t) + c2 * Math.exp(r2 * t);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+
+/**
+ * BaseAdapter that tells its SwipeListView which items were inserted, removed or moved, so the opened
+ * items follow their rows. A plain notifyDataSetChanged can only keep the state where it was.
+ *
+ * Change the data, then call the matching notifyItem method, which also calls notifyDataSetChanged.
+ * Adapters with stable ids don't need it, their swipe state is keyed by item id.
+ */
+public abstract class SwipeAdapter extends BaseAdapter {
+
+    /**
+     * Receives the range changes of the adapter
+     */
+    interface RangeObserver {
+
+        void onItemRangeInserted(int positionStart, int itemCount);
+
+        void onItemRangeRemoved(int positionStart, int itemCount);
+
+        void onItemRangeMoved(int fromPosition, int toPosition, int itemCount);
+    }
+
+    private final ArrayList<RangeObserver> rangeObservers = new ArrayList<RangeObserver>();
+
+    void registerRangeObserver(RangeObserver observer) {
+        if (!rangeObservers.contains(observer)) {
+            rangeObservers.add(observer);
+        }
+    }
+
+    void unregisterRangeObserver(RangeObserver observer) {
+        rangeObservers.remove(observer);
+    }
+
+    /**
+     * Notifies that an item was inserted
+     *
+     * @param position position of the new item
+     */
+    public void notifyItemInserted(int position) {
+        notifyItemRangeInserted(position, 1);
+    }
+
+    /**
+     * Notifies that items were inserted. The items that were at positionStart and after have moved down.
+     *
+     * @param positionStart position of the first new item
+     * @param itemCount     number of new items
+     */
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        for (int i = rangeObservers.size() - 1; i >= 0; i--) {
+            rangeObservers.get(i).onItemRangeInserted(positionStart, itemCount);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Notifies that an item was removed
+     *
+     * @param position former position of the item
+     */
+    public void notifyItemRemoved(int position) {
+        notifyItemRangeRemoved(position, 1);
+    }
+
+    /**
+     * Notifies that items were removed. The items that were after them have moved up.
+     *
+     * @param positionStart former position of the first removed item
+     * @param itemCount     number of removed items
+     */
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        for (int i = rangeObservers.size() - 1; i >= 0; i--) {
+            rangeObservers.get(i).onItemRangeRemoved(positionStart, itemCount);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Notifies that an item was moved
+     *
+     * @param fromPosition former position of the item
+     * @param toPosition   new position of the item
+     */
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        notifyItemRangeMoved(fromPosition, toPosition, 1);
+    }
+
+    /**
+     * Notifies that consecutive items were moved together. The items in between shift to fill the gap.
+     *
+     * @param fromPosition former position of the first moved item
+     * @param toPosition   new position of the first moved item
+     * @param itemCount    number of moved items
+     */
+    public void notifyItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        for (int i = rangeObservers.size() - 1; i >= 0; i--) {
+            rangeObservers.get(i).onItemRangeMoved(fromPosition, toPosition, itemCount);
+        }
+        notifyDataSetChanged();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+/**
+ * Decides how a swiped row settles when the finger is lifted: fling it out, drag it past half
+ * its width, or let it return to where it was.
+ *
+ * Pure function of the gesture, with no Android dependency, so it can be measured and reused
+ * outside of the touch listener.
+ */
+final class SwipeDecision {
+
+    /**
+     * The row changes state (opens, closes or is dismissed)
+     */
+    static final int MOVE_OUT = 1;
+
+    /**
+     * The row moves toward the right
+     */
+    static final int MOVE_TO_RIGHT = 2;
+
+    private SwipeDecision() {
+    }
+
+    /**
+     * @param deltaX           horizontal distance from the touch down
+     * @param velocityX        horizontal velocity in pixels per second
+     * @param velocityY        vertical velocity in pixels per second
+     * @param viewWidth        row width
+     * @param minFlingVelocity minimum fling velocity
+     * @param maxFlingVelocity maximum fling velocity
+     * @param leftOnly         true for SwipeListView.SWIPE_MODE_LEFT
+     * @param rightOnly        true for SwipeListView.SWIPE_MODE_RIGHT
+     * @param leftAction       false if the left swipe action is SwipeListView.SWIPE_ACTION_NONE
+     * @param rightAction      false if the right swipe action is SwipeListView.SWIPE_ACTION_NONE
+     * @param opened           true if the row was opened when the gesture started
+     * @param openedRight      true if the row was opened toward the right
+     * @param swipingRight     current swipe direction
+     * @return combination of MOVE_OUT and MOVE_TO_RIGHT
+     */
+    static int decide(float deltaX, float velocityX, float velocityY, int viewWidth,
+                      int minFlingVelocity, int maxFlingVelocity, boolean leftOnly, boolean rightOnly,
+                      boolean leftAction, boolean rightAction,
+                      boolean opened, boolean openedRight, boolean swipingRight) {
+        float velocityXAbs = Math.abs(velocityX);
+        if (!opened) {
+            if (leftOnly && velocityX > 0) {
+                velocityXAbs = 0;
+            }
+            if (rightOnly && velocityX < 0) {
+                velocityXAbs = 0;
+            }
+        }
+
+        boolean moveOut = false;
+        boolean moveToRight = false;
+        if (minFlingVelocity <= velocityXAbs && velocityXAbs <= maxFlingVelocity && Math.abs(velocityY) * 2 < velocityXAbs) {
+            moveToRight = velocityX > 0;
+            // この時点でフリング動作は確定
+            if (!opened && moveToRight && (!swipingRight || !rightAction)) {
+                moveOut = false;
+            } else if (!opened && !moveToRight && (swipingRight || !leftAction)) {
+                moveOut = false;
+            // 右に開いている状態で右にフリングは無視
+            } else if (opened && openedRight && moveToRight) {
+                moveOut = false;
+            // 左に開いている状態で左にフリングは無視
+            } else if (opened && !openedRight && !moveToRight) {
+                moveOut = false;
+            } else {
+                moveOut = true;
+            }
+        } else if (Math.abs(deltaX) > viewWidth / 2) {
+            moveToRight = deltaX > 0;
+            if (!opened && moveToRight && !rightAction) {
+                moveOut = false;
+            } else if (!opened && !moveToRight && !leftAction) {
+                moveOut = false;
+            } else {
+                moveOut = true;
+            }
+        }
+        return (moveOut ? MOVE_OUT : 0) | (moveToRight ? MOVE_TO_RIGHT : 0);
+    }
+}
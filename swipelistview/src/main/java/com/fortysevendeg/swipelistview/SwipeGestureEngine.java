@@ -0,0 +1,635 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+/**
+ * Swipe gesture state machine of a list row, free of Android dependencies.
+ *
+ * It is fed touch samples (time, raw x, raw y, action) and decides when a swipe starts, how the row
+ * follows the finger and how it settles when the finger is lifted. The results are sent to a
+ * {@link Host} as commands, which SwipeListViewTouchListener turns into view translations and
+ * animations. Velocities come with the samples, measured by the caller with the platform
+ * VelocityTracker, so the same samples and velocities always produce the same commands, on a device
+ * or on a plain JVM.
+ */
+public class SwipeGestureEngine {
+
+    public static final int INVALID_POSITION = -1;
+
+    // Touch actions, same values as MotionEvent
+    public static final int TOUCH_DOWN = 0;
+    public static final int TOUCH_UP = 1;
+    public static final int TOUCH_MOVE = 2;
+    public static final int TOUCH_CANCEL = 3;
+
+    // Same values as SwipeListView.SWIPE_MODE_* and SwipeListView.SWIPE_ACTION_*
+    static final int MODE_NONE = 0;
+    static final int MODE_BOTH = 1;
+    static final int MODE_RIGHT = 2;
+    static final int MODE_LEFT = 3;
+    static final int ACTION_REVEAL = 0;
+    static final int ACTION_DISMISS = 1;
+    static final int ACTION_NONE = 2;
+
+    /**
+     * Row state queries and commands of the engine
+     */
+    public interface Host {
+
+        /**
+         * @param position row position
+         * @return true if the row is opened
+         */
+        boolean isOpened(int position);
+
+        /**
+         * @param position row position
+         * @return true if the row is opened toward the right
+         */
+        boolean isOpenedRight(int position);
+
+        /**
+         * @param position row position
+         * @return swipe mode of the row, or a negative value to use the engine's swipe mode
+         */
+        int getSwipeMode(int position);
+
+        /**
+         * A swipe starts or changes direction
+         *
+         * @param position row position
+         * @param opened   true if the swipe closes an opened row
+         * @param right    swipe direction
+         */
+        void onSwipeStart(int position, boolean opened, boolean right);
+
+        /**
+         * The row follows the finger
+         *
+         * @param position row position
+         * @param deltaX   translation of the row
+         * @param dismiss  true if the whole row moves because the swipe dismisses it
+         */
+        void onTranslate(int position, float deltaX, boolean dismiss);
+
+        /**
+         * A translation is waiting for {@link #renderPendingTranslation(long)}, only sent when
+         * translations are deferred
+         *
+         * @param position row position
+         */
+        void onTranslationPending(int position);
+
+        /**
+         * The finger was lifted and the row settles: it opens or closes when moveOut is true,
+         * or is dismissed if dismiss is also true. Otherwise it returns to where it was.
+         *
+         * @param position    row position
+         * @param moveOut     true if the row changes state
+         * @param moveToRight direction of the change
+         * @param dismiss     true for a dismiss swipe
+         * @param velocityX   horizontal velocity of the finger when lifted, in pixels per second
+         */
+        void onSettle(int position, boolean moveOut, boolean moveToRight, boolean dismiss, float velocityX);
+
+        /**
+         * The gesture was canceled while swiping
+         *
+         * @param position row position
+         */
+        void onCancel(int position);
+    }
+
+    private final Host host;
+    private final TouchPredictor xSamples = new TouchPredictor();
+
+    private int slop;
+    private int minFlingVelocity;
+    private int maxFlingVelocity;
+    private int viewWidth = 1; // 1 and not 0 to prevent dividing by zero
+    private int swipeMode = MODE_BOTH;
+    private int swipeActionLeft = ACTION_REVEAL;
+    private int swipeActionRight = ACTION_REVEAL;
+    private float leftOffsetPer = 1f;
+    private float rightOffsetPer = 1f;
+    private boolean pullDirection;
+    private int predictionMode = TouchPredictor.NONE;
+    private long predictionTime;
+    private boolean deferTranslation;
+    private boolean paused;
+
+    private int position = INVALID_POSITION;
+    private boolean tracking;
+    private boolean swiping;
+    private boolean swipingRight;
+    private float downX;
+    private float frontTranslation;
+    private boolean caught;
+    private float catchOffset;
+
+    /**
+     * @param host             row state and command receiver
+     * @param slop             distance in pixels before a move becomes a swipe
+     * @param minFlingVelocity minimum fling velocity in pixels per second
+     * @param maxFlingVelocity maximum fling velocity in pixels per second
+     */
+    public SwipeGestureEngine(Host host, int slop, int minFlingVelocity, int maxFlingVelocity) {
+        this.host = host;
+        this.slop = slop;
+        this.minFlingVelocity = minFlingVelocity;
+        this.maxFlingVelocity = maxFlingVelocity;
+    }
+
+    /**
+     * Starts a gesture on a row
+     *
+     * @param time     event time in milliseconds
+     * @param x        raw x
+     * @param y        raw y
+     * @param position row position
+     * @return false if the gesture is ignored because swipes are paused while a row is active
+     */
+    public boolean down(long time, float x, float y, int position) {
+        if (paused && this.position != INVALID_POSITION) {
+            return false;
+        }
+        this.position = position;
+        downX = x;
+        tracking = position != INVALID_POSITION;
+        swiping = false;
+        caught = false;
+        catchOffset = 0;
+        frontTranslation = 0;
+        if (tracking && host.isOpened(position)) {
+            frontTranslation = host.isOpenedRight(position) ? viewWidth : -viewWidth;
+        }
+        xSamples.reset();
+        xSamples.addSample(time, x);
+        return tracking;
+    }
+
+    /**
+     * Takes over a row that was still settling when the gesture started on it. The row stays where it
+     * was stopped: drags move it from there, and lifting the finger without dragging settles it again.
+     *
+     * @param offset translation of the row relative to where it rests in its current state
+     */
+    public void catchRow(float offset) {
+        if (!tracking) {
+            return;
+        }
+        caught = true;
+        catchOffset = offset;
+        if (offset != 0) {
+            swipingRight = offset > 0;
+        }
+        frontTranslation += offset;
+    }
+
+    /**
+     * @return true if the current gesture caught a settling row
+     */
+    public boolean isCaught() {
+        return caught;
+    }
+
+    /**
+     * Adds a touch sample. TOUCH_DOWN outside of a swipeable row stops tracking, use
+     * {@link #down(long, float, float, int)} to start a gesture on a row.
+     *
+     * @param time      event time in milliseconds
+     * @param x         raw x
+     * @param y         raw y
+     * @param action    TOUCH_DOWN, TOUCH_MOVE, TOUCH_UP or TOUCH_CANCEL
+     * @param velocityX horizontal velocity of the finger in pixels per second, as computed by
+     *                  VelocityTracker.computeCurrentVelocity(1000) with this event added. Only used by moves and ups.
+     * @param velocityY vertical velocity of the finger in pixels per second
+     * @return true if the event was consumed by a swipe
+     */
+    public boolean onTouchEvent(long time, float x, float y, int action, float velocityX, float velocityY) {
+        switch (action) {
+            case TOUCH_DOWN:
+                tracking = false;
+                swiping = false;
+                return false;
+            case TOUCH_MOVE:
+                return move(time, x, velocityX, velocityY);
+            case TOUCH_UP:
+                return up(time, x, velocityX, velocityY);
+            case TOUCH_CANCEL:
+                return cancel();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Adds a sample batched by the platform before the next TOUCH_MOVE, used by touch prediction
+     *
+     * @param time event time in milliseconds
+     * @param x    raw x
+     * @param y    raw y
+     */
+    public void addHistoricalSample(long time, float x, float y) {
+        if (tracking && !paused) {
+            xSamples.addSample(time, x);
+        }
+    }
+
+    private boolean move(long time, float x, float velocityX, float velocityY) {
+        if (!tracking || paused || position == INVALID_POSITION) {
+            return false;
+        }
+        xSamples.addSample(time, x);
+        velocityX = Math.abs(velocityX);
+        velocityY = Math.abs(velocityY);
+
+        float deltaX = x - downX;
+        float deltaXAbs = Math.abs(deltaX);
+
+        int swipeMode = this.swipeMode;
+        int changeSwipeMode = host.getSwipeMode(position);
+        if (changeSwipeMode >= 0) {
+            swipeMode = changeSwipeMode;
+        }
+
+        if (swipeMode == MODE_NONE) {
+            return false;
+        }
+
+        boolean opened = host.isOpened(position);
+        if (swipeMode != MODE_BOTH) {
+            if (opened) {
+                // 開いている方向に更にスワイプしても何もしない
+                if (swipeMode == MODE_LEFT && deltaX < 0 || swipeMode == MODE_RIGHT && deltaX > 0) {
+                    return false;
+                }
+            } else {
+                // 閉じている方向に更にスワイプしても何もしない
+                if (swipeMode == MODE_LEFT && deltaX > 0 || swipeMode == MODE_RIGHT && deltaX < 0) {
+                    return false;
+                }
+            }
+        }
+
+        if (deltaXAbs > slop && velocityY < velocityX) {
+            if (!swiping || swipingRight != (deltaX > 0)) {
+                host.onSwipeStart(position, opened, swipingRight);
+            }
+            swiping = true;
+            swipingRight = deltaX > 0;
+        }
+
+        if (swiping) {
+            if (deferTranslation) {
+                host.onTranslationPending(position);
+            } else {
+                drag(xSamples.predict(time + predictionTime, predictionMode));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Translates the row for the predicted finger position at a given time. Used when translations
+     * are deferred to the display frame.
+     *
+     * @param time frame time in milliseconds
+     */
+    public void renderPendingTranslation(long time) {
+        if (swiping && position != INVALID_POSITION) {
+            drag(xSamples.predict(time + predictionTime, predictionMode));
+        }
+    }
+
+    /**
+     * Translates the swiped row for a finger at x
+     *
+     * @param x raw x
+     */
+    private void drag(float x) {
+        boolean opened = host.isOpened(position);
+        boolean openedRight = host.isOpenedRight(position);
+        float deltaX = x - downX + catchOffset;
+        if (opened) {
+            deltaX += openedRight ? viewWidth : -viewWidth;
+        }
+        if (pullDirection && !opened) {
+            deltaX *= openedRight ? rightOffsetPer : leftOffsetPer;
+        }
+        boolean dismiss = isDismissSwipe();
+
+        // The direction follows the side of the row, as it was before this translation
+        float posX = frontTranslation;
+        if (opened) {
+            posX += openedRight ? -viewWidth : viewWidth;
+        }
+        if (posX > 0 && !swipingRight) {
+            swipingRight = true;
+        }
+        if (posX < 0 && swipingRight) {
+            swipingRight = false;
+        }
+
+        host.onTranslate(position, deltaX, dismiss);
+        frontTranslation = dismiss ? 0 : deltaX;
+    }
+
+    private boolean up(long time, float x, float velocityX, float velocityY) {
+        if (!tracking || !(swiping || caught) || position == INVALID_POSITION) {
+            tracking = false;
+            swiping = false;
+            return false;
+        }
+        xSamples.addSample(time, x);
+        if (swiping) {
+            settle(x - downX, velocityX, velocityY);
+        } else {
+            // A caught row that was only held settles from where it is, the finger did not fling it
+            settle(0, 0, 0);
+        }
+        return false;
+    }
+
+    /**
+     * Lets the row settle after the gesture
+     *
+     * @param deltaX    horizontal distance of the finger from the touch down
+     * @param velocityX horizontal velocity in pixels per second
+     * @param velocityY vertical velocity in pixels per second
+     */
+    private void settle(float deltaX, float velocityX, float velocityY) {
+        int decision = SwipeDecision.decide(deltaX + catchOffset, velocityX, velocityY,
+                viewWidth, minFlingVelocity, maxFlingVelocity,
+                swipeMode == MODE_LEFT, swipeMode == MODE_RIGHT,
+                swipeActionLeft != ACTION_NONE, swipeActionRight != ACTION_NONE,
+                host.isOpened(position), host.isOpenedRight(position), swipingRight);
+        if (maxFlingVelocity > 0) {
+            velocityX = Math.max(-maxFlingVelocity, Math.min(maxFlingVelocity, velocityX));
+        }
+        host.onSettle(position, (decision & SwipeDecision.MOVE_OUT) != 0,
+                (decision & SwipeDecision.MOVE_TO_RIGHT) != 0, isDismissSwipe(), velocityX);
+
+        tracking = false;
+        downX = 0;
+        swiping = false;
+        caught = false;
+    }
+
+    private boolean cancel() {
+        if (tracking && caught && !swiping && position != INVALID_POSITION) {
+            // A caught row must not stay where it was stopped
+            settle(0, 0, 0);
+            return false;
+        }
+        if (!tracking || !swiping || position == INVALID_POSITION) {
+            tracking = false;
+            swiping = false;
+            return false;
+        }
+        host.onCancel(position);
+        tracking = false;
+        downX = 0;
+        swiping = false;
+        return false;
+    }
+
+    /**
+     * @return true if the current swipe dismisses the row
+     */
+    private boolean isDismissSwipe() {
+        return !host.isOpened(position)
+                && (swipingRight && swipeActionRight == ACTION_DISMISS
+                || !swipingRight && swipeActionLeft == ACTION_DISMISS);
+    }
+
+    /**
+     * Forgets the row of the last gesture once it has settled
+     */
+    public void clearPosition() {
+        position = INVALID_POSITION;
+    }
+
+    /**
+     * Follows the row of the gesture when rows are inserted, removed or moved around it
+     *
+     * @param position new position of the row, INVALID_POSITION if it was removed
+     */
+    public void movePosition(int position) {
+        this.position = position;
+    }
+
+    /**
+     * Follows the row of the gesture when items are inserted
+     *
+     * @param positionStart position of the first inserted item
+     * @param itemCount     number of inserted items
+     */
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (position != INVALID_POSITION && position >= positionStart) {
+            position += itemCount;
+        }
+    }
+
+    /**
+     * Follows the row of the gesture when items are removed, and forgets it if it is one of them
+     *
+     * @param positionStart former position of the first removed item
+     * @param itemCount     number of removed items
+     */
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (position >= positionStart + itemCount) {
+            position -= itemCount;
+        } else if (position >= positionStart) {
+            position = INVALID_POSITION;
+        }
+    }
+
+    /**
+     * Follows the row of the gesture when items are moved
+     *
+     * @param fromPosition former position of the first moved item
+     * @param toPosition   new position of the first moved item
+     * @param itemCount    number of moved items
+     */
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (position != INVALID_POSITION) {
+            position = movedPosition(position, fromPosition, toPosition, itemCount);
+        }
+    }
+
+    /**
+     * @return where position ends up once itemCount items are moved from fromPosition to toPosition
+     */
+    static int movedPosition(int position, int fromPosition, int toPosition, int itemCount) {
+        if (position >= fromPosition && position < fromPosition + itemCount) {
+            return toPosition + position - fromPosition;
+        }
+        if (position >= fromPosition + itemCount) {
+            position -= itemCount;
+        }
+        return position >= toPosition ? position + itemCount : position;
+    }
+
+    /**
+     * @return row of the current or last gesture, INVALID_POSITION if none
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return true between the touch down on a row and the end of the gesture
+     */
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * @return true once the gesture has become a swipe
+     */
+    public boolean isSwiping() {
+        return swiping;
+    }
+
+    public boolean isSwipingRight() {
+        return swipingRight;
+    }
+
+    /**
+     * Pauses swipes, e.g. while the list scrolls
+     *
+     * @param paused true to ignore moves
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @param viewWidth row width in pixels
+     */
+    public void setViewWidth(int viewWidth) {
+        this.viewWidth = Math.max(1, viewWidth);
+    }
+
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    /**
+     * @param slop distance in pixels before a move becomes a swipe
+     */
+    public void setSlop(int slop) {
+        this.slop = slop;
+    }
+
+    /**
+     * @param minFlingVelocity minimum fling velocity in pixels per second
+     * @param maxFlingVelocity maximum fling velocity in pixels per second
+     */
+    public void setFlingVelocity(int minFlingVelocity, int maxFlingVelocity) {
+        this.minFlingVelocity = minFlingVelocity;
+        this.maxFlingVelocity = maxFlingVelocity;
+    }
+
+    /**
+     * @param swipeMode SwipeListView.SWIPE_MODE_*
+     */
+    public void setSwipeMode(int swipeMode) {
+        this.swipeMode = swipeMode;
+    }
+
+    public int getSwipeMode() {
+        return swipeMode;
+    }
+
+    /**
+     * @param swipeActionLeft SwipeListView.SWIPE_ACTION_* for left swipes
+     */
+    public void setSwipeActionLeft(int swipeActionLeft) {
+        this.swipeActionLeft = swipeActionLeft;
+    }
+
+    public int getSwipeActionLeft() {
+        return swipeActionLeft;
+    }
+
+    /**
+     * @param swipeActionRight SwipeListView.SWIPE_ACTION_* for right swipes
+     */
+    public void setSwipeActionRight(int swipeActionRight) {
+        this.swipeActionRight = swipeActionRight;
+    }
+
+    public int getSwipeActionRight() {
+        return swipeActionRight;
+    }
+
+    public void setLeftOffsetPer(float leftOffsetPer) {
+        this.leftOffsetPer = leftOffsetPer;
+    }
+
+    public void setRightOffsetPer(float rightOffsetPer) {
+        this.rightOffsetPer = rightOffsetPer;
+    }
+
+    public void setPullDirection(boolean pullDirection) {
+        this.pullDirection = pullDirection;
+    }
+
+    public boolean isPullDirection() {
+        return pullDirection;
+    }
+
+    /**
+     * @param predictionMode SwipeListView.SWIPE_TOUCH_PREDICTION_*
+     * @param predictionTime how far ahead the finger position is predicted, in milliseconds
+     */
+    public void setTouchPrediction(int predictionMode, long predictionTime) {
+        this.predictionMode = predictionMode;
+        this.predictionTime = Math.max(0, predictionTime);
+    }
+
+    /**
+     * @param deferTranslation true to send {@link Host#onTranslationPending(int)} instead of translating
+     *                         on every move
+     */
+    public void setDeferTranslation(boolean deferTranslation) {
+        this.deferTranslation = deferTranslation;
+    }
+
+    /**
+     * @return mean absolute error in pixels of the predicted finger positions
+     */
+    public float getMeanPredictionError() {
+        return xSamples.getMeanPredictionError();
+    }
+
+    /**
+     * @return mean absolute error in pixels of the last known finger positions at the same times
+     */
+    public float getMeanUnpredictedError() {
+        return xSamples.getMeanUnpredictedError();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.util.Arrays;
+
+/**
+ * Per-row swipe state keyed by stable item id, used when the adapter has stable ids.
+ *
+ * Only opened rows are stored, as a sorted long array of ids, so the state survives inserts,
+ * deletes and reorders. On data set changes, the ids of the adapter are marked, and the opened rows
+ * whose item is gone are closed. Shared with the RecyclerView support.
+ */
+public class SwipeIdStateStore {
+
+    private long[] openIds = new long[8];
+    private boolean[] openRight = new boolean[8];
+    private int openCount;
+
+    // Opened rows found in the adapter by the current reconciliation
+    private boolean[] marked = new boolean[8];
+    private int markedCount;
+
+    /**
+     * @return number of opened rows
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * @param index index between 0 and {@link #getOpenCount()}
+     * @return id of the opened row at index, in ascending id order
+     */
+    public long getOpenId(int index) {
+        return openIds[index];
+    }
+
+    /**
+     * @param index index between 0 and {@link #getOpenCount()}
+     * @return true if the opened row at index is opened toward the right
+     */
+    public boolean isOpenRightAt(int index) {
+        return openRight[index];
+    }
+
+    /**
+     * Closes every row
+     */
+    public void clear() {
+        openCount = 0;
+        trim();
+    }
+
+    /**
+     * Starts reconciling the opened rows with the adapter. The rows whose id is passed to
+     * {@link #mark(long)} stay opened when {@link #closeUnmarked()} is called, the others are closed.
+     */
+    public void beginMark() {
+        if (marked.length < openCount) {
+            marked = new boolean[openIds.length];
+        }
+        Arrays.fill(marked, 0, openCount, false);
+        markedCount = 0;
+    }
+
+    /**
+     * Marks the id of an item of the adapter, in O(log open rows)
+     *
+     * @param id item id
+     * @return true if the id is an opened row that was not marked yet
+     */
+    public boolean mark(long id) {
+        int index = Arrays.binarySearch(openIds, 0, openCount, id);
+        if (index < 0 || marked[index]) {
+            return false;
+        }
+        marked[index] = true;
+        markedCount++;
+        return true;
+    }
+
+    /**
+     * @return true once every opened row is marked, the remaining items don't need to be marked
+     */
+    public boolean isAllMarked() {
+        return markedCount == openCount;
+    }
+
+    /**
+     * Closes the opened rows that were not marked since {@link #beginMark()}
+     */
+    public void closeUnmarked() {
+        if (markedCount == openCount) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < openCount; i++) {
+            if (marked[i]) {
+                openIds[kept] = openIds[i];
+                openRight[kept] = openRight[i];
+                kept++;
+            }
+        }
+        openCount = kept;
+        trim();
+    }
+
+    /**
+     * Releases the memory kept for many more opened rows than there are now
+     */
+    private void trim() {
+        int capacity = Math.max(8, Integer.highestOneBit(Math.max(1, openCount)) << 1);
+        if (openIds.length > capacity << 1) {
+            openIds = Arrays.copyOf(openIds, capacity);
+            openRight = Arrays.copyOf(openRight, capacity);
+        }
+    }
+
+    /**
+     * @param id item id
+     * @return true if the row is opened
+     */
+    public boolean isOpened(long id) {
+        return Arrays.binarySearch(openIds, 0, openCount, id) >= 0;
+    }
+
+    /**
+     * @param id item id
+     * @return true if the row is opened toward the right. Closed rows return false
+     */
+    public boolean isOpenedRight(long id) {
+        int index = Arrays.binarySearch(openIds, 0, openCount, id);
+        return index >= 0 && openRight[index];
+    }
+
+    /**
+     * Marks a row as opened
+     *
+     * @param id    item id
+     * @param right true if opened toward the right
+     */
+    public void open(long id, boolean right) {
+        int index = Arrays.binarySearch(openIds, 0, openCount, id);
+        if (index >= 0) {
+            openRight[index] = right;
+            return;
+        }
+        index = -index - 1;
+        if (openCount == openIds.length) {
+            openIds = Arrays.copyOf(openIds, openCount << 1);
+            openRight = Arrays.copyOf(openRight, openCount << 1);
+        }
+        System.arraycopy(openIds, index, openIds, index + 1, openCount - index);
+        System.arraycopy(openRight, index, openRight, index + 1, openCount - index);
+        openIds[index] = id;
+        openRight[index] = right;
+        openCount++;
+    }
+
+    /**
+     * Marks a row as closed
+     *
+     * @param id item id
+     */
+    public void close(long id) {
+        int index = Arrays.binarySearch(openIds, 0, openCount, id);
+        if (index >= 0) {
+            System.arraycopy(openIds, index + 1, openIds, index, openCount - index - 1);
+            System.arraycopy(openRight, index + 1, openRight, index, openCount - index - 1);
+            openCount--;
+        }
+    }
+}
@@ -18,9 +18,14 @@
 
 package com.fortysevendeg.swipelistview;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
@@ -28,6 +33,9 @@ import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.widget.ListAdapter;
 import android.widget.ListView;
+import android.widget.WrapperListAdapter;
+
+import java.util.Arrays;
 
 /**
  * ListView subclass that provides the swipe functionality
@@ -84,6 +92,91 @@ public class SwipeListView extends ListView {
      */
     public final static int SWIPE_ACTION_NONE = 2;
 
+    /**
+     * Dismissed rows shrink by changing their height, which lays out the list on every frame
+     */
+    public final static int SWIPE_DISMISS_COLLAPSE_LAYOUT = 0;
+
+    /**
+     * Rows below a dismissed row slide up with a translation, and the list is laid out once at the end
+     */
+    public final static int SWIPE_DISMISS_COLLAPSE_TRANSLATE = 1;
+
+    /**
+     * Rows are never drawn into hardware layers
+     */
+    public final static int SWIPE_LAYER_NONE = 0;
+
+    /**
+     * Rows use a hardware layer while they settle or collapse, and drop it at rest
+     */
+    public final static int SWIPE_LAYER_SETTLE = 1;
+
+    /**
+     * Rows use a hardware layer while they are dragged, settle or collapse, and drop it at rest
+     */
+    public final static int SWIPE_LAYER_DRAG_AND_SETTLE = 2;
+
+    /**
+     * Dismissed rows fade out while they slide
+     */
+    public final static int SWIPE_DISMISS_STYLE_FADE = 0;
+
+    /**
+     * Dismissed rows slide out without changing their alpha
+     */
+    public final static int SWIPE_DISMISS_STYLE_SLIDE = 1;
+
+    /**
+     * Rows settle in the animation time, whatever their distance and velocity
+     */
+    public final static int SWIPE_SETTLE_TIMED = 0;
+
+    /**
+     * Rows settle with a spring launched at the velocity of the finger, and stop as soon as they are at rest
+     */
+    public final static int SWIPE_SETTLE_SPRING = 1;
+
+    /**
+     * Default stiffness of the settle spring
+     */
+    public final static float DEFAULT_SPRING_STIFFNESS = 3000f;
+
+    /**
+     * Default damping ratio of the settle spring, no bounce
+     */
+    public final static float DEFAULT_SPRING_DAMPING_RATIO = 1f;
+
+    /**
+     * The swiped row follows every touch event
+     */
+    public final static int SWIPE_DRAG_RENDER_IMMEDIATE = 0;
+
+    /**
+     * The swiped row is translated once per display frame, with the latest touch samples
+     */
+    public final static int SWIPE_DRAG_RENDER_FRAME = 1;
+
+    /**
+     * The swiped row shows the last known finger position
+     */
+    public final static int SWIPE_TOUCH_PREDICTION_NONE = 0;
+
+    /**
+     * The finger position is extrapolated with a linear fit of the latest samples
+     */
+    public final static int SWIPE_TOUCH_PREDICTION_LINEAR = 1;
+
+    /**
+     * The finger position is extrapolated with a quadratic fit of the latest samples
+     */
+    public final static int SWIPE_TOUCH_PREDICTION_QUADRATIC = 2;
+
+    /**
+     * Rows left below the last visible one when onPrefetch is called, by default
+     */
+    public final static int DEFAULT_PREFETCH_DISTANCE = 5;
+
     /**
      * Default ids for front view
      */
@@ -128,6 +221,151 @@ public class SwipeListView extends ListView {
      */
     private SwipeListViewTouchListener touchListener;
 
+    /**
+     * Optional listener for swipe progress
+     */
+    private OnSwipeProgressListener swipeProgressListener;
+
+    /**
+     * Optional listener for back views inflated from a ViewStub
+     */
+    private OnBackViewInflatedListener backViewInflatedListener;
+
+    /**
+     * Optional listener that loads the next page of the list
+     */
+    private OnPrefetchListener prefetchListener;
+
+    /**
+     * Optional recorder of the touch events reaching the list
+     */
+    private SwipeTouchTrace touchTraceRecorder;
+
+    /**
+     * Move notifications are delivered at most once per display frame
+     */
+    private boolean coalesceMoveEvents;
+    private boolean movePending;
+    private int pendingMovePosition;
+    private float pendingMoveX;
+
+    private final Runnable moveDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchPendingMove();
+        }
+    };
+
+    /**
+     * Adapter the data set observer is registered on, only while the list is attached to a window
+     */
+    private ListAdapter observedAdapter;
+    private SwipeAdapter observedSwipeAdapter;
+    private boolean attachedToWindow;
+
+    /**
+     * Data set changes are handled at most once per display frame
+     */
+    private boolean dataSetChangePending;
+    private boolean dataSetInvalidated;
+
+    private final DataSetObserver dataSetObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            scheduleDataSetChange(false);
+        }
+
+        @Override
+        public void onInvalidated() {
+            scheduleDataSetChange(true);
+        }
+    };
+
+    /**
+     * Range changes of a SwipeAdapter. Swipe state is keyed by adapter position, like the gestures.
+     */
+    private final SwipeAdapter.RangeObserver rangeObserver = new SwipeAdapter.RangeObserver() {
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            touchListener.onItemRangeInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            touchListener.onItemRangeRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            touchListener.onItemRangeMoved(fromPosition, toPosition, itemCount);
+        }
+    };
+
+    private final Runnable dataSetChangeDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchDataSetChange();
+        }
+    };
+
+    /**
+     * Callback for a single dismiss request
+     */
+    public interface OnDismissCompleteListener {
+
+        /**
+         * Called once the dismissed items of the request have been reported by onDismiss
+         * and their rows restored, so the adapter can be changed safely
+         *
+         * @param reverseSortedPositions Items dismissed by this request
+         */
+        void onDismissComplete(int[] reverseSortedPositions);
+    }
+
+    /**
+     * Listener for back views declared as a ViewStub, which are inflated the first time their row is swiped or opened
+     */
+    public interface OnBackViewInflatedListener {
+
+        /**
+         * Called right after a back view is inflated, so its content can be bound
+         *
+         * @param position list item
+         * @param backView inflated back view, kept by the row when it is recycled
+         */
+        void onBackViewInflated(int position, View backView);
+    }
+
+    /**
+     * Listener asked to load more items before the user reaches the end of the list
+     */
+    public interface OnPrefetchListener {
+
+        /**
+         * Called from onScroll when the rows left below the last visible one drop to the prefetch distance,
+         * once per crossing. It is called again when the item count changes or the list is scrolled back by a screen.
+         *
+         * @param lastVisiblePosition last visible position
+         * @param totalItemCount      number of items in the list, headers and footers included
+         */
+        void onPrefetch(int lastVisiblePosition, int totalItemCount);
+    }
+
+    /**
+     * Listener for the offset of the row being swiped
+     */
+    public interface OnSwipeProgressListener {
+
+        /**
+         * Called when user is moving an item, with the same frequency as onMove
+         *
+         * @param position list item
+         * @param x        Current position X
+         * @param fraction Absolute offset relative to the list width, between 0 and 1
+         */
+        void onSwipeProgress(int position, float x, float fraction);
+    }
+
     /**
      * If you create a View programmatically you need send back and front identifier
      *
@@ -168,6 +406,7 @@ public class SwipeListView extends ListView {
         int swipeMode = SWIPE_MODE_BOTH;
         boolean pullDirection = false;
         boolean swipeCloseAllItemsWhenMoveList = true;
+        boolean swipeSingleOpen = false;
         long swipeAnimationTime = 0;
         float swipeOffsetLeftPer = 1f;
         float swipeOffsetRightPer = 1f;
@@ -178,6 +417,12 @@ public class SwipeListView extends ListView {
 
         int swipeActionLeft = SWIPE_ACTION_REVEAL;
         int swipeActionRight = SWIPE_ACTION_REVEAL;
+        int swipeDismissCollapse = SWIPE_DISMISS_COLLAPSE_LAYOUT;
+        int swipeLayerPolicy = SWIPE_LAYER_NONE;
+        int swipeDismissStyle = SWIPE_DISMISS_STYLE_FADE;
+        int swipeSettleMode = SWIPE_SETTLE_TIMED;
+        float swipeSpringStiffness = DEFAULT_SPRING_STIFFNESS;
+        float swipeSpringDampingRatio = DEFAULT_SPRING_DAMPING_RATIO;
 
         if (attrs != null) {
             TypedArray styled = getContext().obtainStyledAttributes(attrs, R.styleable.SwipeListView);
@@ -191,6 +436,13 @@ public class SwipeListView extends ListView {
 //            swipeOffsetRight = styled.getDimension(R.styleable.SwipeListView_swipeOffsetRight, -1);
             swipeAnimationTime = styled.getInteger(R.styleable.SwipeListView_swipeAnimationTime, 0);
             swipeCloseAllItemsWhenMoveList = styled.getBoolean(R.styleable.SwipeListView_swipeCloseAllItemsWhenMoveList, true);
+            swipeSingleOpen = styled.getBoolean(R.styleable.SwipeListView_swipeSingleOpen, false);
+            swipeDismissCollapse = styled.getInt(R.styleable.SwipeListView_swipeDismissCollapse, SWIPE_DISMISS_COLLAPSE_LAYOUT);
+            swipeLayerPolicy = styled.getInt(R.styleable.SwipeListView_swipeLayerPolicy, SWIPE_LAYER_NONE);
+            swipeDismissStyle = styled.getInt(R.styleable.SwipeListView_swipeDismissStyle, SWIPE_DISMISS_STYLE_FADE);
+            swipeSettleMode = styled.getInt(R.styleable.SwipeListView_swipeSettleMode, SWIPE_SETTLE_TIMED);
+            swipeSpringStiffness = styled.getFloat(R.styleable.SwipeListView_swipeSpringStiffness, DEFAULT_SPRING_STIFFNESS);
+            swipeSpringDampingRatio = styled.getFloat(R.styleable.SwipeListView_swipeSpringDampingRatio, DEFAULT_SPRING_DAMPING_RATIO);
 //            swipeDrawableChecked = styled.getResourceId(R.styleable.SwipeListView_swipeDrawableChecked, 0);
 //            swipeDrawableUnchecked = styled.getResourceId(R.styleable.SwipeListView_swipeDrawableUnchecked, 0);
             swipeFrontView = styled.getResourceId(R.styleable.SwipeListView_swipeFrontView, 0);
@@ -221,6 +473,12 @@ public class SwipeListView extends ListView {
         touchListener.setSwipeActionRight(swipeActionRight);
         touchListener.setSwipeMode(swipeMode);
         touchListener.setSwipeClosesAllItemsWhenListMoves(swipeCloseAllItemsWhenMoveList);
+        touchListener.setSwipeSingleOpen(swipeSingleOpen);
+        touchListener.setDismissCollapseMode(swipeDismissCollapse);
+        touchListener.setLayerPolicy(swipeLayerPolicy);
+        touchListener.setDismissStyle(swipeDismissStyle);
+        touchListener.setSettleMode(swipeSettleMode);
+        touchListener.setSpring(swipeSpringStiffness, swipeSpringDampingRatio);
         setOnTouchListener(touchListener);
         setOnScrollListener(touchListener.makeScrollListener());
     }
@@ -232,7 +490,8 @@ public class SwipeListView extends ListView {
      * @param position    position in list
      */
     public void recycle(View convertView, int position) {
-        touchListener.reloadSwipeStateInView(convertView.findViewById(swipeFrontView), position);
+        touchListener.reloadSwipeStateInView(touchListener.getFrontView(convertView), position);
+        touchListener.reloadBackView(convertView, position);
 
         // Clean pressed state (if dismiss is fire from a cell, to this cell, with a press drawable, in a swipelistview
         // when this cell will be recycle it will still have his pressed state. This ensure the pressed state is
@@ -248,17 +507,147 @@ public class SwipeListView extends ListView {
      */
     @Override
     public void setAdapter(ListAdapter adapter) {
+        unregisterAdapterObserver();
         super.setAdapter(adapter);
+        // The new adapter is reconciled right away, changes pending on the old one are dropped
+        dataSetChangePending = false;
+        dataSetInvalidated = false;
+        removeCallbacks(dataSetChangeDispatcher);
         touchListener.resetItems();
-        adapter.registerDataSetObserver(new DataSetObserver() {
+        if (attachedToWindow) {
+            registerAdapterObserver(getAdapter());
+        }
+    }
 
-            @Override
-            public void onChanged() {
-                super.onChanged();
-                onListChanged();
-                touchListener.resetItems();
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attachedToWindow = true;
+        registerAdapterObserver(getAdapter());
+        // Changes made while detached were not observed
+        if (dataSetChangePending) {
+            dispatchDataSetChange();
+        } else {
+            touchListener.resetItems();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        attachedToWindow = false;
+        unregisterAdapterObserver();
+        removeCallbacks(dataSetChangeDispatcher);
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Returns the adapter set by the app. With header or footer views, getAdapter() returns a wrapper whose
+     * positions include the headers. Swipe state, item ids and listener positions use the positions of
+     * the wrapped adapter.
+     *
+     * @return adapter without the header and footer wrapper, may be null
+     */
+    ListAdapter getDataAdapter() {
+        ListAdapter adapter = getAdapter();
+        return adapter instanceof WrapperListAdapter ? ((WrapperListAdapter) adapter).getWrappedAdapter() : adapter;
+    }
+
+    /**
+     * @return listener that handles the touch events and animations of the rows
+     */
+    SwipeListViewTouchListener getTouchListener() {
+        return touchListener;
+    }
+
+    /**
+     * Observes the adapter, a single observer per list whatever the number of adapter swaps
+     *
+     * @param adapter adapter to observe, may be null
+     */
+    private void registerAdapterObserver(ListAdapter adapter) {
+        if (adapter == observedAdapter) {
+            return;
+        }
+        unregisterAdapterObserver();
+        if (adapter != null) {
+            adapter.registerDataSetObserver(dataSetObserver);
+            observedAdapter = adapter;
+            // Header and footer views wrap the adapter
+            ListAdapter wrapped = getDataAdapter();
+            if (wrapped instanceof SwipeAdapter) {
+                observedSwipeAdapter = (SwipeAdapter) wrapped;
+                observedSwipeAdapter.registerRangeObserver(rangeObserver);
             }
-        });
+        }
+    }
+
+    private void unregisterAdapterObserver() {
+        if (observedAdapter != null) {
+            observedAdapter.unregisterDataSetObserver(dataSetObserver);
+            observedAdapter = null;
+        }
+        if (observedSwipeAdapter != null) {
+            observedSwipeAdapter.unregisterRangeObserver(rangeObserver);
+            observedSwipeAdapter = null;
+        }
+    }
+
+    /**
+     * Defers the handling of a data set change to the next display frame, so a burst of
+     * notifyDataSetChanged calls resets the swipe state and notifies onListChanged once
+     *
+     * @param invalidated true if the data was invalidated rather than changed
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void scheduleDataSetChange(boolean invalidated) {
+        dataSetInvalidated |= invalidated;
+        if (dataSetChangePending) {
+            return;
+        }
+        dataSetChangePending = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postOnAnimation(dataSetChangeDispatcher);
+        } else {
+            post(dataSetChangeDispatcher);
+        }
+    }
+
+    /**
+     * Handles the pending data set change, if any
+     */
+    private void dispatchDataSetChange() {
+        if (!dataSetChangePending) {
+            return;
+        }
+        dataSetChangePending = false;
+        removeCallbacks(dataSetChangeDispatcher);
+        if (dataSetInvalidated) {
+            dataSetInvalidated = false;
+            touchListener.clearItems();
+        }
+        onListChanged();
+        touchListener.resetItems();
+    }
+
+    /**
+     * Saves the opened items with the state of the list, compactly encoded
+     */
+    @Override
+    public Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        savedState.swipeState = touchListener.saveSwipeState();
+        return savedState;
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        touchListener.restoreSwipeState(savedState.swipeState);
     }
 
     /**
@@ -267,14 +656,74 @@ public class SwipeListView extends ListView {
      * @param position Position that you want open
      */
     public void dismiss(int position) {
-        int height = touchListener.dismiss(position);
-        if (height > 0) {
-            touchListener.handlerPendingDismisses(height);
-        } else {
-            int[] dismissPositions = new int[1];
-            dismissPositions[0] = position;
-            onDismiss(dismissPositions);
-            touchListener.resetPendingDismisses();
+        dismiss(new int[]{position}, null);
+    }
+
+    /**
+     * Dismiss item
+     *
+     * @param position Position that you want to dismiss
+     * @param listener Notified right after onDismiss reports this item, may be null
+     */
+    public void dismiss(int position, OnDismissCompleteListener listener) {
+        dismiss(new int[]{position}, listener);
+    }
+
+    /**
+     * Dismiss several items at once. Visible items collapse together in a single animation,
+     * the others are removed without animation, and onDismiss is notified once for all of them.
+     *
+     * @param positions Positions that you want to dismiss
+     */
+    public void dismiss(int[] positions) {
+        dismiss(positions, null);
+    }
+
+    /**
+     * Dismiss several items at once.
+     *
+     * @param positions Positions that you want to dismiss
+     * @param listener  Notified right after onDismiss reports these items, may be null
+     * @see #dismiss(int[])
+     */
+    public void dismiss(int[] positions, OnDismissCompleteListener listener) {
+        touchListener.dismiss(positions, listener);
+    }
+
+    /**
+     * Dismiss several items by their stable id. Ids that are not in the adapter are ignored.
+     *
+     * @param itemIds Ids of the items that you want to dismiss
+     * @see #dismiss(int[])
+     */
+    public void dismissItemIds(long[] itemIds) {
+        dismissItemIds(itemIds, null);
+    }
+
+    /**
+     * Dismiss several items by their stable id. Ids that are not in the adapter are ignored.
+     *
+     * @param itemIds  Ids of the items that you want to dismiss
+     * @param listener Notified right after onDismiss reports these items, may be null
+     * @see #dismiss(int[])
+     */
+    public void dismissItemIds(long[] itemIds, OnDismissCompleteListener listener) {
+        ListAdapter adapter = getDataAdapter();
+        if (adapter == null || itemIds.length == 0) {
+            return;
+        }
+        long[] sortedIds = itemIds.clone();
+        Arrays.sort(sortedIds);
+        int[] positions = new int[sortedIds.length];
+        int found = 0;
+        int count = adapter.getCount();
+        for (int position = 0; position < count && found < positions.length; position++) {
+            if (Arrays.binarySearch(sortedIds, adapter.getItemId(position)) >= 0) {
+                positions[found++] = position;
+            }
+        }
+        if (found > 0) {
+            dismiss(Arrays.copyOf(positions, found), listener);
         }
     }
 
@@ -302,6 +751,7 @@ public class SwipeListView extends ListView {
      * @param reverseSortedPositions All dismissed positions
      */
     protected void onDismiss(int[] reverseSortedPositions) {
+        dispatchPendingMove();
         if (swipeListViewListener != null) {
             swipeListViewListener.onDismiss(reverseSortedPositions);
         }
@@ -314,6 +764,7 @@ public class SwipeListView extends ListView {
      * @param right    to right
      */
     protected void onStartOpen(int position, boolean right) {
+        dispatchPendingMove();
         if (swipeListViewListener != null && position != ListView.INVALID_POSITION) {
             swipeListViewListener.onStartOpen(position, right);
         }
@@ -326,11 +777,24 @@ public class SwipeListView extends ListView {
      * @param right
      */
     protected void onStartClose(int position, boolean right) {
+        dispatchPendingMove();
         if (swipeListViewListener != null && position != ListView.INVALID_POSITION) {
             swipeListViewListener.onStartClose(position, right);
         }
     }
 
+    /**
+     * Notifies onBackViewInflated
+     *
+     * @param position list item
+     * @param backView inflated back view
+     */
+    protected void onBackViewInflated(int position, View backView) {
+        if (backViewInflatedListener != null && position != ListView.INVALID_POSITION) {
+            backViewInflatedListener.onBackViewInflated(position, backView);
+        }
+    }
+
     /**
      * Notifies onOpened
      *
@@ -338,6 +802,7 @@ public class SwipeListView extends ListView {
      * @param toRight  If should be opened toward the right
      */
     protected void onOpened(int position, boolean toRight) {
+        dispatchPendingMove();
         if (swipeListViewListener != null && position != ListView.INVALID_POSITION) {
             swipeListViewListener.onOpened(position, toRight);
         }
@@ -350,6 +815,7 @@ public class SwipeListView extends ListView {
      * @param fromRight If open from right
      */
     protected void onClosed(int position, boolean fromRight) {
+        dispatchPendingMove();
         if (swipeListViewListener != null && position != ListView.INVALID_POSITION) {
             swipeListViewListener.onClosed(position, fromRight);
         }
@@ -373,6 +839,18 @@ public class SwipeListView extends ListView {
         }
     }
 
+    /**
+     * Notifies onPrefetch
+     *
+     * @param lastVisiblePosition last visible position
+     * @param totalItemCount      number of items in the list
+     */
+    protected void onPrefetch(int lastVisiblePosition, int totalItemCount) {
+        if (prefetchListener != null) {
+            prefetchListener.onPrefetch(lastVisiblePosition, totalItemCount);
+        }
+    }
+
     /**
      * User is in bottom of listview
      */
@@ -383,7 +861,7 @@ public class SwipeListView extends ListView {
     }
 
     /**
-     * Notifies onListChanged
+     * Notifies onListChanged, on the display frame following the adapter notifications
      */
     protected void onListChanged() {
         if (swipeListViewListener != null) {
@@ -397,10 +875,53 @@ public class SwipeListView extends ListView {
      * @param position Item moving
      * @param x        Current position
      */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
     protected void onMove(int position, float x) {
-        if (swipeListViewListener != null && position != ListView.INVALID_POSITION) {
+        if (position == ListView.INVALID_POSITION || (swipeListViewListener == null && swipeProgressListener == null)) {
+            return;
+        }
+        if (!coalesceMoveEvents || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            deliverMove(position, x);
+            return;
+        }
+        if (movePending && pendingMovePosition != position) {
+            dispatchPendingMove();
+        }
+        pendingMovePosition = position;
+        pendingMoveX = x;
+        if (!movePending) {
+            movePending = true;
+            postOnAnimation(moveDispatcher);
+        }
+    }
+
+    /**
+     * Delivers the latest coalesced move, if any, so it is not reordered with other notifications
+     */
+    private void dispatchPendingMove() {
+        if (!movePending) {
+            return;
+        }
+        movePending = false;
+        removeCallbacks(moveDispatcher);
+        deliverMove(pendingMovePosition, pendingMoveX);
+    }
+
+    /**
+     * Notifies onMove and onSwipeProgress
+     *
+     * @param position Item moving
+     * @param x        Current position
+     */
+    private void deliverMove(int position, float x) {
+        if (swipeListViewListener != null) {
             swipeListViewListener.onMove(position, x);
         }
+        if (swipeProgressListener != null) {
+            int width = getWidth();
+            float fraction = width > 0 ? Math.min(1f, Math.abs(x) / width) : 0f;
+            swipeProgressListener.onSwipeProgress(position, x, fraction);
+        }
     }
 
     protected int changeSwipeMode(int position) {
@@ -419,6 +940,59 @@ public class SwipeListView extends ListView {
         this.swipeListViewListener = swipeListViewListener;
     }
 
+    /**
+     * Sets the listener notified when a ViewStub back view is inflated
+     *
+     * @param backViewInflatedListener Listener
+     */
+    public void setOnBackViewInflatedListener(OnBackViewInflatedListener backViewInflatedListener) {
+        this.backViewInflatedListener = backViewInflatedListener;
+    }
+
+    /**
+     * Sets the listener that loads the next page, asked DEFAULT_PREFETCH_DISTANCE rows before the end
+     *
+     * @param prefetchListener Listener
+     * @see #setPrefetchDistance(int, long)
+     */
+    public void setOnPrefetchListener(OnPrefetchListener prefetchListener) {
+        this.prefetchListener = prefetchListener;
+    }
+
+    /**
+     * Sets how close to the end of the list onPrefetch is called. While the list scrolls, the rows it will
+     * go through during the lookahead time are added to the distance, so fast flings ask for the next page earlier.
+     *
+     * @param prefetchDistance rows left below the last visible one
+     * @param lookahead        milliseconds of scrolling projected ahead, 0 to ignore the scroll velocity
+     */
+    public void setPrefetchDistance(int prefetchDistance, long lookahead) {
+        touchListener.setPrefetchDistance(prefetchDistance, lookahead);
+    }
+
+    /**
+     * Sets the progress listener
+     *
+     * @param swipeProgressListener Listener
+     */
+    public void setOnSwipeProgressListener(OnSwipeProgressListener swipeProgressListener) {
+        this.swipeProgressListener = swipeProgressListener;
+    }
+
+    /**
+     * Delivers onMove and onSwipeProgress at most once per display frame, with the latest offset.
+     * Useful on touch panels that report several events per frame. Needs Jelly Bean, older
+     * versions keep delivering one notification per touch event.
+     *
+     * @param coalesceMoveEvents true to coalesce move notifications
+     */
+    public void setCoalesceMoveEvents(boolean coalesceMoveEvents) {
+        if (!coalesceMoveEvents) {
+            dispatchPendingMove();
+        }
+        this.coalesceMoveEvents = coalesceMoveEvents;
+    }
+
     /**
      * Resets scrolling
      */
@@ -499,6 +1073,119 @@ public class SwipeListView extends ListView {
         touchListener.setSwipeActionRight(swipeActionRight);
     }
 
+    /**
+     * Sets how dismissed rows collapse
+     *
+     * @param dismissCollapseMode SWIPE_DISMISS_COLLAPSE_LAYOUT or SWIPE_DISMISS_COLLAPSE_TRANSLATE
+     */
+    public void setDismissCollapseMode(int dismissCollapseMode) {
+        touchListener.setDismissCollapseMode(dismissCollapseMode);
+    }
+
+    /**
+     * Sets when rows are drawn into hardware layers. Layers make translations and fades cheap for
+     * complex rows, they are dropped as soon as the rows are at rest.
+     *
+     * @param layerPolicy SWIPE_LAYER_NONE, SWIPE_LAYER_SETTLE or SWIPE_LAYER_DRAG_AND_SETTLE
+     */
+    public void setLayerPolicy(int layerPolicy) {
+        touchListener.setLayerPolicy(layerPolicy);
+    }
+
+    /**
+     * Sets how rows look while they are dismissed
+     *
+     * @param dismissStyle SWIPE_DISMISS_STYLE_FADE or SWIPE_DISMISS_STYLE_SLIDE
+     */
+    public void setDismissStyle(int dismissStyle) {
+        touchListener.setDismissStyle(dismissStyle);
+    }
+
+    /**
+     * Sets how rows settle when the finger is lifted or they are opened and closed. Springs start
+     * from the velocity of the finger and end as soon as the row is at rest.
+     *
+     * @param settleMode SWIPE_SETTLE_TIMED or SWIPE_SETTLE_SPRING
+     */
+    public void setSettleMode(int settleMode) {
+        touchListener.setSettleMode(settleMode);
+    }
+
+    /**
+     * Sets the spring used with SWIPE_SETTLE_SPRING
+     *
+     * @param stiffness    spring stiffness, higher settles faster. Default DEFAULT_SPRING_STIFFNESS
+     * @param dampingRatio 1 for no bounce, lower bounces around the target, higher approaches it slower.
+     *                     Default DEFAULT_SPRING_DAMPING_RATIO
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        touchListener.setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * @return number of rows currently drawn into a hardware layer, 0 when every row is at rest
+     */
+    public int getActiveLayerCount() {
+        return touchListener.getActiveLayerCount();
+    }
+
+    /**
+     * Sets when the swiped row is translated. SWIPE_DRAG_RENDER_FRAME needs Jelly Bean,
+     * older versions keep translating on every touch event.
+     *
+     * @param dragRenderMode SWIPE_DRAG_RENDER_IMMEDIATE or SWIPE_DRAG_RENDER_FRAME
+     */
+    public void setDragRenderMode(int dragRenderMode) {
+        touchListener.setDragRenderMode(dragRenderMode);
+    }
+
+    /**
+     * Predicts the finger position a short time ahead while dragging, to hide touch latency
+     *
+     * @param touchPredictionMode SWIPE_TOUCH_PREDICTION_NONE, SWIPE_TOUCH_PREDICTION_LINEAR or SWIPE_TOUCH_PREDICTION_QUADRATIC
+     * @param touchPredictionTime how far ahead the finger position is predicted, in milliseconds
+     */
+    public void setTouchPrediction(int touchPredictionMode, long touchPredictionTime) {
+        touchListener.setTouchPrediction(touchPredictionMode, touchPredictionTime);
+    }
+
+    /**
+     * Mean absolute distance between the predicted finger positions and where the finger actually was.
+     * Compare with {@link #getMeanUnpredictedError()} to measure the prediction.
+     *
+     * @return error in pixels
+     */
+    public float getMeanPredictionError() {
+        return touchListener.getMeanPredictionError();
+    }
+
+    /**
+     * Mean absolute distance between the last known finger position and where the finger actually was,
+     * at the same times as the predictions
+     *
+     * @return error in pixels
+     */
+    public float getMeanUnpredictedError() {
+        return touchListener.getMeanUnpredictedError();
+    }
+
+    /**
+     * Sets the metrics that record touch latency, gesture and settle durations, dropped frames
+     * and open, close and dismiss counts. Dropped frames are only counted on Jelly Bean and up.
+     *
+     * @param swipeMetrics metrics or null to stop recording
+     */
+    public void setSwipeMetrics(SwipeMetrics swipeMetrics) {
+        touchListener.setSwipeMetrics(swipeMetrics);
+    }
+
+    /**
+     * @return current metrics or null
+     */
+    public SwipeMetrics getSwipeMetrics() {
+        return touchListener.getSwipeMetrics();
+    }
+
     /**
      * Sets animation time when user drops cell
      *
@@ -508,11 +1195,94 @@ public class SwipeListView extends ListView {
         touchListener.setAnimationTime(animationTime);
     }
 
+    /**
+     * Records every touch event reaching the list into a trace, until null is set
+     *
+     * @param touchTraceRecorder trace to append to or null to stop recording
+     */
+    public void setTouchTraceRecorder(SwipeTouchTrace touchTraceRecorder) {
+        this.touchTraceRecorder = touchTraceRecorder;
+    }
+
+    /**
+     * Dispatches the events of a trace to the list, as if they were happening now. The events are
+     * dispatched at once, with their recorded times shifted to the current time.
+     *
+     * @param trace recorded trace
+     */
+    public void replayTouchTrace(SwipeTouchTrace trace) {
+        int size = trace.size();
+        if (size == 0) {
+            return;
+        }
+        long timeShift = SystemClock.uptimeMillis() - trace.getTime(size - 1);
+        long downTime = trace.getTime(0) + timeShift;
+        float offsetX = 0;
+        float offsetY = 0;
+        MotionEvent batch = null;
+        for (int i = 0; i < size; i++) {
+            int action = trace.getAction(i);
+            long time = trace.getTime(i) + timeShift;
+            float x = trace.getRawX(i);
+            float y = trace.getRawY(i);
+            if (action == SwipeTouchTrace.ACTION_DOWN) {
+                downTime = time;
+                offsetX = trace.getOffsetX(i);
+                offsetY = trace.getOffsetY(i);
+            }
+            if (batch == null) {
+                // Raw coordinates are kept by offsetLocation, which only moves the list coordinates
+                batch = MotionEvent.obtain(downTime, time,
+                        action == SwipeTouchTrace.ACTION_HISTORY ? MotionEvent.ACTION_MOVE : action, x, y, 0);
+                batch.offsetLocation(-offsetX, -offsetY);
+            } else {
+                batch.addBatch(time, x - offsetX, y - offsetY, 1f, 1f, 0);
+            }
+            if (action != SwipeTouchTrace.ACTION_HISTORY) {
+                dispatchTouchEvent(batch);
+                batch.recycle();
+                batch = null;
+            }
+        }
+        if (batch != null) {
+            batch.recycle();
+        }
+    }
+
+    /**
+     * @see android.view.ViewGroup#dispatchTouchEvent(android.view.MotionEvent)
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        SwipeTouchTrace trace = touchTraceRecorder;
+        int action = ev.getActionMasked();
+        if (trace == null || action > MotionEvent.ACTION_CANCEL) {
+            return super.dispatchTouchEvent(ev);
+        }
+        float offsetX = ev.getRawX() - ev.getX();
+        float offsetY = ev.getRawY() - ev.getY();
+        int historySize = ev.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            trace.add(SwipeTouchTrace.ACTION_HISTORY, ev.getHistoricalEventTime(i),
+                    ev.getHistoricalX(i) + offsetX, ev.getHistoricalY(i) + offsetY, 0, 0);
+        }
+        trace.add(action, ev.getEventTime(), ev.getRawX(), ev.getRawY(), offsetX, offsetY);
+        boolean handled = super.dispatchTouchEvent(ev);
+        if (action == MotionEvent.ACTION_DOWN) {
+            trace.setLastDownPosition(touchListener.getTrackedPosition());
+        } else if (action == MotionEvent.ACTION_MOVE || action == MotionEvent.ACTION_UP) {
+            trace.setLastVelocity(touchListener.getVelocityX(), touchListener.getVelocityY());
+        }
+        return handled;
+    }
+
     /**
      * @see android.widget.ListView#onInterceptTouchEvent(android.view.MotionEvent)
      */
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
+        // A swipe must not start on state that still belongs to the previous data
+        dispatchDataSetChange();
         int action = ev.getActionMasked();
         final float x = ev.getX();
         final float y = ev.getY();
@@ -576,9 +1346,73 @@ public class SwipeListView extends ListView {
     }
 
     /**
-     * Close all opened items
+     * Close all opened items. Visible items animate, items that scrolled off screen are closed right away.
      */
     public void closeOpenedItems() {
         touchListener.closeOpenedItems();
     }
+
+    /**
+     * @return number of opened items
+     */
+    public int getOpenCount() {
+        return touchListener.getOpenCount();
+    }
+
+    /**
+     * @return positions of the opened items, in ascending order
+     */
+    public int[] getOpenPositions() {
+        return touchListener.getOpenPositions();
+    }
+
+    /**
+     * @return ids of the opened items
+     */
+    public long[] getOpenItemIds() {
+        return touchListener.getOpenItemIds();
+    }
+
+    /**
+     * Keeps at most one item opened: when an item opens, the others close
+     *
+     * @param swipeSingleOpen true for accordion behavior
+     */
+    public void setSwipeSingleOpen(boolean swipeSingleOpen) {
+        touchListener.setSwipeSingleOpen(swipeSingleOpen);
+    }
+
+    /**
+     * Instance state of the list with its opened items
+     */
+    static class SavedState extends BaseSavedState {
+        byte[] swipeState;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            swipeState = in.createByteArray();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeByteArray(swipeState);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 }
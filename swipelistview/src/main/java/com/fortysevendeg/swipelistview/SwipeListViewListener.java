@@ -38,7 +38,10 @@ public interface SwipeListViewListener {
     void onClosed(int position, boolean fromRight);
 
     /**
-     * Called when the list changed
+     * Called when the list changed, once per display frame however many times the adapter notified it.
+     * It is not called from within notifyDataSetChanged or notifyDataSetInvalidated: it comes on the next
+     * display frame, or earlier when a touch reaches the list first. Opened items are fitted to the new
+     * data right after it returns.
      */
     void onListChanged();
 
@@ -65,7 +68,10 @@ public interface SwipeListViewListener {
     void onStartClose(int position, boolean right);
 
     /**
-     * Called when user dismisses items
+     * Called when user dismisses items. The array is reused by later calls, copy it to keep it.
+     * When the adapter has stable ids, on Jelly Bean and up, each dismiss is reported as soon as its own
+     * animation ends, while other rows may still be animating. Otherwise the dismisses are reported
+     * together once the last dismiss animation of the list ends.
      * @param reverseSortedPositions Items dismissed
      */
     void onDismiss(int[] reverseSortedPositions);
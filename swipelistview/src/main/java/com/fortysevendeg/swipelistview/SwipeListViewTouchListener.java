@@ -22,11 +22,12 @@ package com.fortysevendeg.swipelistview;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
-import android.graphics.Rect;
+import android.os.Build;
 import android.os.Build.VERSION_CODES;
-import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
@@ -34,62 +35,122 @@ import android.view.View;
 import android.view.View.OnTouchListener;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.widget.AbsListView;
 import android.widget.AbsListView.OnScrollListener;
+import android.widget.ListAdapter;
 import android.widget.ListView;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Touch listener impl for the SwipeListView
  */
 public class SwipeListViewTouchListener implements View.OnTouchListener {
-    private int swipeMode = SwipeListView.SWIPE_MODE_BOTH;
+
+    /**
+     * Easing of timed settles, the default of ViewPropertyAnimator. It is set explicitly because
+     * the animator of a row keeps the spring of its previous settle otherwise.
+     */
+    private static final TimeInterpolator TIMED_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
     private boolean swipeClosesAllItemsWhenListMoves = true;
+    private boolean swipeSingleOpen;
+    private final PrefetchTrigger prefetchTrigger = new PrefetchTrigger(SwipeListView.DEFAULT_PREFETCH_DISTANCE);
 
     private int cancelAnimationDuration;
     private int swipeFrontView = 0;
     private int swipeBackView = 0;
 
-    private Rect rect = new Rect();
-
     // Cached ViewConfiguration and system-wide constant values
-    private int slop;
-    private int minFlingVelocity;
-    private int maxFlingVelocity;
     private long configShortAnimationTime;
     private long animationTime;
 
-    private float leftOffsetPer = 1f;
-    private float rightOffsetPer = 1f;
-
     // Fixed properties
     private SwipeListView swipeListView;
     private int viewWidth = 1; // 1 and not 0 to prevent dividing by zero
 
-    private List<PendingDismissData> pendingDismisses = new ArrayList<PendingDismissData>();
+    private final List<PendingDismissData> pendingDismisses = new ArrayList<PendingDismissData>();
+
+    // Reported dismisses kept for reuse, and the buffers of the last report. The report list is null
+    // while a report runs, a dismiss started by a listener is then reported with its own buffers.
+    private static final int MAX_POOLED_DISMISSES = 16;
+    private final List<PendingDismissData> dismissPool = new ArrayList<PendingDismissData>();
+    private List<PendingDismissData> reportedDismisses = new ArrayList<PendingDismissData>();
+    private final int[][] dismissPositionArrays = new int[MAX_POOLED_DISMISSES][];
+
+    /**
+     * Rows whose settle animation is running, so it can be caught, retargeted or moved with its item
+     */
+    private final List<RowAnimator> settlingRows = new ArrayList<RowAnimator>();
     private int dismissAnimationRefCount = 0;
+    private boolean dismissFramePending;
 
-    private float downX;
-    private boolean swiping;
-    private boolean swipingRight;
+    private final SwipeGestureEngine engine;
     private VelocityTracker velocityTracker;
-    private int downPosition;
+    private float velocityX;
+    private float velocityY;
     private View parentView;
     private View frontView;
-    private boolean paused;
 
-    private int swipeActionLeft = SwipeListView.SWIPE_ACTION_REVEAL;
-    private int swipeActionRight = SwipeListView.SWIPE_ACTION_REVEAL;
-
-    private List<Boolean> opened = new ArrayList<Boolean>();
-    private List<Boolean> openedRight = new ArrayList<Boolean>();
+    private SwipeStateStore swipeStates = new SwipeStateStore();
+    private SwipeIdStateStore swipeIdStates = new SwipeIdStateStore();
+    private boolean stableIds;
+    private SwipeStateCodec restoredState;
     private boolean listViewMoving;
     private int oldSwipeActionRight;
     private int oldSwipeActionLeft;
-    private boolean pullDirection;
+    private int dismissCollapseMode = SwipeListView.SWIPE_DISMISS_COLLAPSE_LAYOUT;
+
+    private int dragRenderMode = SwipeListView.SWIPE_DRAG_RENDER_IMMEDIATE;
+    private boolean dragFramePending;
+
+    private int layerPolicy = SwipeListView.SWIPE_LAYER_NONE;
+    private int dismissStyle = SwipeListView.SWIPE_DISMISS_STYLE_FADE;
+    private int settleMode = SwipeListView.SWIPE_SETTLE_TIMED;
+    private float springStiffness = SwipeListView.DEFAULT_SPRING_STIFFNESS;
+    private float springDampingRatio = SwipeListView.DEFAULT_SPRING_DAMPING_RATIO;
+    private long lastSettleDuration;
+    private int activeLayerCount;
+    private View dragLayerView;
+
+    private SwipeMetrics metrics;
+    private FrameDropMonitor frameDropMonitor;
+    private long gestureDownTime;
+    private long gestureUpTime;
+    private boolean gestureTranslated;
+    private long gestureSettleStart;
+    private long latestSettleStart;
+    private long settleDeadline;
+
+    private final Runnable dragFrame = new Runnable() {
+        @Override
+        public void run() {
+            dragFramePending = false;
+            if (frontView != null) {
+                engine.renderPendingTranslation(SystemClock.uptimeMillis());
+            }
+        }
+    };
+
+    private final Runnable dismissFrame = new Runnable() {
+        @Override
+        public void run() {
+            dismissFramePending = false;
+            removePendingDismisses(true);
+        }
+    };
+
+    private final Runnable enableRunnable = new Runnable() {
+        @Override
+        public void run() {
+            setEnabled(true);
+        }
+    };
 
     /**
      * Constructor
@@ -103,9 +164,8 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         this.swipeFrontView = swipeFrontView;
         this.swipeBackView = swipeBackView;
         ViewConfiguration vc = ViewConfiguration.get(swipeListView.getContext());
-        slop = vc.getScaledTouchSlop();
-        minFlingVelocity = vc.getScaledMinimumFlingVelocity();
-        maxFlingVelocity = vc.getScaledMaximumFlingVelocity();
+        engine = new SwipeGestureEngine(new GestureHost(), vc.getScaledTouchSlop(),
+                vc.getScaledMinimumFlingVelocity(), vc.getScaledMaximumFlingVelocity());
         configShortAnimationTime = swipeListView.getContext().getResources().getInteger(android.R.integer.config_shortAnimTime);
         animationTime = configShortAnimationTime;
         this.swipeListView = swipeListView;
@@ -155,7 +215,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param rightOffsetPer OffsetPer
      */
     public void setRightOffsetPer(float rightOffsetPer) {
-        this.rightOffsetPer = rightOffsetPer;
+        engine.setRightOffsetPer(rightOffsetPer);
     }
 
     /**
@@ -164,7 +224,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param leftOffsetPer OffsetPer
      */
     public void setLeftOffsetPer(float leftOffsetPer) {
-        this.leftOffsetPer = leftOffsetPer;
+        engine.setLeftOffsetPer(leftOffsetPer);
     }
 
     /**
@@ -182,7 +242,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swipeMode
      */
     public void setSwipeMode(int swipeMode) {
-        this.swipeMode = swipeMode;
+        engine.setSwipeMode(swipeMode);
     }
 
     /**
@@ -191,7 +251,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return
      */
     protected boolean isSwipeEnabled() {
-        return swipeMode != SwipeListView.SWIPE_MODE_NONE;
+        return engine.getSwipeMode() != SwipeListView.SWIPE_MODE_NONE;
     }
 
     /**
@@ -200,7 +260,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return Action
      */
     public int getSwipeActionLeft() {
-        return swipeActionLeft;
+        return engine.getSwipeActionLeft();
     }
 
     /**
@@ -209,7 +269,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swipeActionLeft Action
      */
     public void setSwipeActionLeft(int swipeActionLeft) {
-        this.swipeActionLeft = swipeActionLeft;
+        engine.setSwipeActionLeft(swipeActionLeft);
     }
 
     /**
@@ -218,7 +278,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return Action
      */
     public int getSwipeActionRight() {
-        return swipeActionRight;
+        return engine.getSwipeActionRight();
     }
 
     /**
@@ -227,19 +287,296 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param swipeActionRight Action
      */
     public void setSwipeActionRight(int swipeActionRight) {
-        this.swipeActionRight = swipeActionRight;
+        engine.setSwipeActionRight(swipeActionRight);
     }
 
     /**
-     * Adds new items when adapter is modified
+     * Fits the swipe state to the adapter when it is set or modified. Without stable ids the state
+     * grows or shrinks to the item count, and rows past the end are closed. With stable ids the state
+     * is keyed by item id, and the opened ids that are no longer in the adapter are closed. The scan
+     * stops as soon as every opened id is found, so it is linear in the adapter size when an opened item
+     * was removed: getItemId is called for every item, once per coalesced data set change.
      */
     public void resetItems() {
+        ListAdapter adapter = swipeListView.getDataAdapter();
+        if (adapter == null) {
+            clearItems();
+            return;
+        }
+        boolean stableIds = adapter.hasStableIds();
+        if (stableIds != this.stableIds) {
+            swipeStates.clear();
+            swipeIdStates.clear();
+            this.stableIds = stableIds;
+        }
+        int count = adapter.getCount();
+        if (stableIds) {
+            swipeStates.setSize(0);
+            if (swipeIdStates.getOpenCount() > 0) {
+                // Removed or replaced items must not leave their ids opened
+                swipeIdStates.beginMark();
+                for (int i = 0; i < count && !swipeIdStates.isAllMarked(); i++) {
+                    swipeIdStates.mark(adapter.getItemId(i));
+                }
+                swipeIdStates.closeUnmarked();
+            }
+        } else {
+            swipeStates.setSize(count + 1);
+        }
+        applyRestoredState();
+    }
+
+    /**
+     * Shifts the swipe state after items were inserted. Only the opened rows after the insert are
+     * visited, the state is left alone with stable ids.
+     *
+     * @param positionStart adapter position of the first inserted item
+     * @param itemCount     number of inserted items
+     */
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (!stableIds) {
+            swipeStates.insert(positionStart, itemCount);
+        }
+        engine.onItemRangeInserted(positionStart, itemCount);
+        offsetPositions(positionStart, itemCount);
+    }
+
+    /**
+     * Shifts the swipe state after items were removed, closing the removed ones. Only the opened
+     * rows from the first removed one are visited, the state is left alone with stable ids.
+     *
+     * @param positionStart former adapter position of the first removed item
+     * @param itemCount     number of removed items
+     */
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (!stableIds) {
+            swipeStates.removeRange(positionStart, itemCount);
+        }
+        engine.onItemRangeRemoved(positionStart, itemCount);
+        for (int i = settlingRows.size() - 1; i >= 0; i--) {
+            RowAnimator rowAnimator = settlingRows.get(i);
+            if (rowAnimator.isInterruptible()
+                    && rowAnimator.position >= positionStart && rowAnimator.position < positionStart + itemCount) {
+                rowAnimator.interrupt();
+            }
+        }
+        offsetPositions(positionStart + itemCount, -itemCount);
+    }
+
+    /**
+     * Moves the swipe state of moved items along with them
+     *
+     * @param fromPosition former adapter position of the first moved item
+     * @param toPosition   new adapter position of the first moved item
+     * @param itemCount    number of moved items
+     */
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (!stableIds) {
+            swipeStates.move(fromPosition, toPosition, itemCount);
+        }
+        engine.onItemRangeMoved(fromPosition, toPosition, itemCount);
+        for (PendingDismissData pendingDismiss : pendingDismisses) {
+            pendingDismiss.position = SwipeGestureEngine.movedPosition(pendingDismiss.position,
+                    fromPosition, toPosition, itemCount);
+        }
+        for (RowAnimator rowAnimator : settlingRows) {
+            rowAnimator.position = SwipeGestureEngine.movedPosition(rowAnimator.position,
+                    fromPosition, toPosition, itemCount);
+        }
+    }
+
+    /**
+     * Adds delta to the settle and pending dismiss positions from position from
+     */
+    private void offsetPositions(int from, int delta) {
+        for (PendingDismissData pendingDismiss : pendingDismisses) {
+            if (pendingDismiss.position >= from) {
+                pendingDismiss.position += delta;
+            }
+        }
+        for (RowAnimator rowAnimator : settlingRows) {
+            if (rowAnimator.position >= from) {
+                rowAnimator.position += delta;
+            }
+        }
+    }
+
+    /**
+     * Closes every item and releases the swipe state, used when the adapter data is invalidated
+     */
+    public void clearItems() {
+        // Settles would end on the state of items that no longer exist
+        for (int i = settlingRows.size() - 1; i >= 0; i--) {
+            if (settlingRows.get(i).isInterruptible()) {
+                settlingRows.get(i).interrupt();
+            }
+        }
+        swipeStates.clear();
+        swipeStates.setSize(0);
+        swipeIdStates.clear();
+    }
+
+    /**
+     * Encodes the opened items for the instance state of the list. When they don't fit
+     * SwipeStateCodec.MAX_BYTES, only the items with the lowest positions or ids that fit are saved.
+     *
+     * @return opened items, at most SwipeStateCodec.MAX_BYTES long
+     */
+    protected byte[] saveSwipeState() {
+        SwipeStateCodec pending = restoredState;
+        if (pending != null) {
+            // Still waiting for the items, the state is saved again as it was restored
+            return pending.bytes;
+        }
+        int count = getOpenCount();
+        long[] values = new long[count];
+        boolean[] rights = new boolean[count];
+        if (stableIds) {
+            for (int i = 0; i < count; i++) {
+                values[i] = swipeIdStates.getOpenId(i);
+                rights[i] = swipeIdStates.isOpenRightAt(i);
+            }
+        } else {
+            int index = 0;
+            for (int position = swipeStates.nextOpened(0); position >= 0 && index < count;
+                 position = swipeStates.nextOpened(position + 1)) {
+                values[index] = position;
+                rights[index++] = swipeStates.isOpenedRight(position);
+            }
+        }
+        return SwipeStateCodec.encode(stableIds ? SwipeStateCodec.KIND_IDS : SwipeStateCodec.KIND_POSITIONS,
+                values, rights, count, SwipeStateCodec.MAX_BYTES);
+    }
+
+    /**
+     * Restores the opened items saved by {@link #saveSwipeState()}. If the adapter is not set yet or
+     * still empty, they are restored when it has items.
+     *
+     * @param swipeState encoded opened items, may be null
+     */
+    protected void restoreSwipeState(byte[] swipeState) {
+        if (swipeState == null) {
+            return;
+        }
+        try {
+            restoredState = SwipeStateCodec.decode(swipeState);
+        } catch (IOException e) {
+            Log.w(SwipeListView.TAG, "Ignoring invalid swipe state", e);
+            return;
+        }
         if (swipeListView.getAdapter() != null) {
-            int count = swipeListView.getAdapter().getCount();
-            for (int i = opened.size(); i <= count; i++) {
-                opened.add(false);
-                openedRight.add(false);
+            applyRestoredState();
+        }
+    }
+
+    /**
+     * Opens the restored items, in O(min(open items, adapter items)). State saved with stable ids is only
+     * restored into an adapter with stable ids, and positions into an adapter without. An empty adapter is
+     * usually still loading its items, so the state waits for the first data change that brings some.
+     */
+    private void applyRestoredState() {
+        SwipeStateCodec state = restoredState;
+        ListAdapter adapter = swipeListView.getDataAdapter();
+        int count = adapter != null ? adapter.getCount() : 0;
+        if (state == null || count == 0) {
+            return;
+        }
+        restoredState = null;
+        if ((state.kind == SwipeStateCodec.KIND_IDS) != stableIds) {
+            return;
+        }
+        if (stableIds) {
+            swipeIdStates.clear();
+            if (state.count <= count) {
+                state.openIds(swipeIdStates);
+            } else {
+                // More ids than items, only the ids of the adapter are opened
+                for (int position = 0; position < count; position++) {
+                    long id = adapter.getItemId(position);
+                    long index = state.indexOf(id);
+                    if (index >= 0) {
+                        swipeIdStates.open(id, state.isOpenedRightAt(index));
+                    }
+                }
+            }
+        } else {
+            swipeStates.clear();
+            // Rows past the end would be dropped by the next resetItems anyway
+            state.openPositions(swipeStates, count);
+        }
+        // Rows already laid out show the restored state right away, headers and footers have no state
+        int first = getFirstVisibleItem();
+        int childCount = swipeListView.getChildCount();
+        for (int i = Math.max(0, -first); i < childCount && first + i < count; i++) {
+            reloadSwipeStateInView(getFrontView(swipeListView.getChildAt(i)), first + i);
+        }
+    }
+
+    /**
+     * Returns the stable id of the item at position
+     *
+     * @param position adapter position, without the header views
+     * @return item id or ListView.INVALID_ROW_ID if position is out of the adapter
+     */
+    private long getItemId(int position) {
+        ListAdapter adapter = swipeListView.getDataAdapter();
+        if (adapter == null || position < 0 || position >= adapter.getCount()) {
+            return ListView.INVALID_ROW_ID;
+        }
+        return adapter.getItemId(position);
+    }
+
+    /**
+     * @param position Position of list
+     * @return true if the item is opened
+     */
+    private boolean isOpened(int position) {
+        if (stableIds) {
+            long id = getItemId(position);
+            return id != ListView.INVALID_ROW_ID && swipeIdStates.isOpened(id);
+        }
+        return swipeStates.isOpened(position);
+    }
+
+    /**
+     * @param position Position of list
+     * @return true if the item is opened toward the right
+     */
+    private boolean isOpenedRight(int position) {
+        if (stableIds) {
+            long id = getItemId(position);
+            return id != ListView.INVALID_ROW_ID && swipeIdStates.isOpenedRight(id);
+        }
+        return swipeStates.isOpenedRight(position);
+    }
+
+    /**
+     * Saves the item as opened
+     *
+     * @param position Position of list
+     * @param right    If opened toward the right
+     */
+    private void markOpened(int position, boolean right) {
+        if (stableIds) {
+            long id = getItemId(position);
+            if (id != ListView.INVALID_ROW_ID) {
+                swipeIdStates.open(id, right);
             }
+        } else {
+            swipeStates.open(position, right);
+        }
+    }
+
+    /**
+     * Saves the item as closed
+     *
+     * @param position Position of list
+     */
+    private void markClosed(int position) {
+        if (stableIds) {
+            swipeIdStates.close(getItemId(position));
+        } else {
+            swipeStates.close(position);
         }
     }
 
@@ -249,9 +586,10 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position Position of list
      */
     protected void openAnimate(int position) {
-        final View child = swipeListView.getChildAt(position - swipeListView.getFirstVisiblePosition()).findViewById(swipeFrontView);
+        final View child = getFrontViewAt(position);
 
         if (child != null) {
+            inflateBackView(getRowAt(position), position);
             openAnimate(child, position);
         }
     }
@@ -262,7 +600,7 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position Position of list
      */
     protected void closeAnimate(int position) {
-        final View child = swipeListView.getChildAt(position - swipeListView.getFirstVisiblePosition()).findViewById(swipeFrontView);
+        final View child = getFrontViewAt(position);
 
         if (child != null) {
             closeAnimate(child, position);
@@ -270,22 +608,188 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
     }
 
     /**
-     * Dismiss an item.
-     * @param position is the position of the item to delete.
-     * @return 0 if the item is not visible. Otherwise return the height of the cell to dismiss.
+     * Returns the front view of a visible row
+     *
+     * @param position Position of list
+     * @return front view or null if the row is not visible
+     */
+    private View getFrontViewAt(int position) {
+        View row = getRowAt(position);
+        return row != null ? getFrontView(row) : null;
+    }
+
+    /**
+     * Returns the row view of a visible item
+     *
+     * @param position adapter position, without the header views
+     * @return row view or null if the row is not visible
+     */
+    private View getRowAt(int position) {
+        return swipeListView.getChildAt(position - getFirstVisibleItem());
+    }
+
+    /**
+     * @return adapter position of the first row view, negative while header views are visible
+     */
+    private int getFirstVisibleItem() {
+        return swipeListView.getFirstVisiblePosition() - swipeListView.getHeaderViewsCount();
+    }
+
+    /**
+     * @return adapter position of the last row view, past the last item while footer views are visible
+     */
+    private int getLastVisibleItem() {
+        return swipeListView.getLastVisiblePosition() - swipeListView.getHeaderViewsCount();
+    }
+
+    /**
+     * Inflates the back view of a row the first time it is needed, when it is a ViewStub
+     *
+     * @param row      row view
+     * @param position Position of list
+     */
+    private void inflateBackView(View row, int position) {
+        SwipeViewHolder holder = SwipeViewHolder.get(row, swipeFrontView, swipeBackView);
+        if (holder.inflateBackView(row, swipeBackView)) {
+            swipeListView.onBackViewInflated(position, holder.backView);
+        }
+    }
+
+    /**
+     * Inflates the back view of a recycled row that shows an opened item
+     *
+     * @param row      row view
+     * @param position Position of list
+     */
+    protected void reloadBackView(View row, int position) {
+        if (isOpened(position)) {
+            inflateBackView(row, position);
+        }
+    }
+
+    /**
+     * Returns the front view of a row, cached in the row's SwipeViewHolder
+     *
+     * @param row row view
+     * @return front view
+     */
+    View getFrontView(View row) {
+        return SwipeViewHolder.get(row, swipeFrontView, swipeBackView).frontView;
+    }
+
+    /**
+     * Dismiss several items with a single collapse animation for all the visible ones.
+     * onDismiss is notified as soon as the last running dismiss animation ends, together with
+     * any other dismiss in progress. Off-screen items are removed without animation.
+     *
+     * @param positions positions of the items to delete
+     * @param listener  notified with the positions of this request once onDismiss has been called, may be null
      */
-    protected int dismiss(int position) {
-        opened.remove(position);
-        int start = swipeListView.getFirstVisiblePosition();
-        int end = swipeListView.getLastVisiblePosition();
-        View view = swipeListView.getChildAt(position - start);
+    protected void dismiss(int[] positions, SwipeListView.OnDismissCompleteListener listener) {
+        int[] reverseSortedPositions = PositionArrays.sortDescending(positions);
+        if (reverseSortedPositions.length == 0) {
+            return;
+        }
+        for (int position : reverseSortedPositions) {
+            removeItemState(position);
+        }
+        DismissRequest request = listener != null ? new DismissRequest(listener) : null;
+
+        int start = getFirstVisibleItem();
+        int end = getLastVisibleItem();
+        int visibleCount = 0;
+        PendingDismissData[] dismisses = new PendingDismissData[reverseSortedPositions.length];
+        for (int i = 0; i < reverseSortedPositions.length; i++) {
+            int position = reverseSortedPositions[i];
+            View view = null;
+            if (position >= start && position <= end) {
+                view = swipeListView.getChildAt(position - start);
+                visibleCount++;
+            }
+            dismisses[i] = obtainPendingDismiss(position, view);
+            dismisses[i].request = request;
+            pendingDismisses.add(dismisses[i]);
+        }
+        if (visibleCount == 0) {
+            for (PendingDismissData dismiss : dismisses) {
+                dismiss.finished = true;
+            }
+            reportFinishedDismisses();
+            return;
+        }
+
+        View[] views = new View[visibleCount];
+        int index = 0;
+        for (PendingDismissData dismiss : dismisses) {
+            if (dismiss.view != null) {
+                views[index++] = dismiss.view;
+            }
+        }
         ++dismissAnimationRefCount;
-        if (position >= start && position <= end) {
-            performDismiss(view, position, false);
-            return view.getHeight();
+        new DismissBatch(views, dismisses).start();
+    }
+
+    /**
+     * Dismisses are pipelined when the adapter has stable ids on Jelly Bean and up: every finished dismiss
+     * is reported on the next frame, while other rows are still animating. The rows in flight keep a
+     * transient state, so ListView keeps them bound to their items when the adapter changes.
+     * Otherwise dismisses are reported together once the last animation ends.
+     *
+     * @return true if dismisses are pipelined
+     */
+    private boolean isDismissPipelined() {
+        return stableIds && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    /**
+     * Keeps a dismissed row bound to its item until it is reported
+     */
+    @TargetApi(VERSION_CODES.JELLY_BEAN)
+    private void setDismissTransientState(View view, boolean transientState) {
+        RowAnimator rowAnimator = getRowAnimator(view);
+        if (rowAnimator.transientState != transientState) {
+            rowAnimator.transientState = transientState;
+            view.setHasTransientState(transientState);
+        }
+    }
+
+    /**
+     * Current position of an item, which moves when earlier dismisses are reported while its animation runs
+     *
+     * @param itemId   stable id of the item, ListView.INVALID_ROW_ID if the adapter has none
+     * @param position position of the item when its animation started
+     * @return position of the item, or the given position if it can't be found
+     */
+    private int resolvePosition(long itemId, int position) {
+        if (itemId == ListView.INVALID_ROW_ID || getItemId(position) == itemId) {
+            return position;
+        }
+        // Earlier items were removed, so look above the old position first
+        for (int i = position - 1; i >= 0; i--) {
+            if (getItemId(i) == itemId) {
+                return i;
+            }
+        }
+        ListAdapter adapter = swipeListView.getDataAdapter();
+        int count = adapter != null ? adapter.getCount() : 0;
+        for (int i = position + 1; i < count; i++) {
+            if (getItemId(i) == itemId) {
+                return i;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Forgets the swipe state of a removed item
+     *
+     * @param position Position of list
+     */
+    private void removeItemState(int position) {
+        if (stableIds) {
+            swipeIdStates.close(getItemId(position));
         } else {
-            pendingDismisses.add(new PendingDismissData(position, null));
-            return 0;
+            swipeStates.remove(position);
         }
     }
 
@@ -295,10 +799,19 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param frontView view to re-draw
      */
     protected void reloadSwipeStateInView(View frontView, int position) {
-        if (!opened.get(position)) {
+        RowAnimator settling = (RowAnimator) frontView.getTag(R.id.swipelistview__row_animator);
+        if (settling != null && settling.isInterruptible()) {
+            if (settling.isFor(position)) {
+                // The settle brings the row to the new state of its item
+                return;
+            }
+            // The view now shows another item
+            settling.interrupt();
+        }
+        if (!isOpened(position)) {
             frontView.setTranslationX(0.0f);
         } else {
-            if (openedRight.get(position)) {
+            if (isOpenedRight(position)) {
                 frontView.setTranslationX(swipeListView.getWidth());
             } else {
                 frontView.setTranslationX(-swipeListView.getWidth());
@@ -314,8 +827,8 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position Position of list
      */
     private void openAnimate(View view, int position) {
-        if (!opened.get(position)) {
-            generateTranslateAnimate(view, true, false, position);
+        if (!isOpened(position)) {
+            generateTranslateAnimate(view, true, false, position, 0);
         }
     }
 
@@ -326,8 +839,8 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position Position of list
      */
     private void closeAnimate(View view, int position) {
-        if (opened.get(position)) {
-            generateTranslateAnimate(view, true, false, position);
+        if (isOpened(position)) {
+            generateTranslateAnimate(view, true, false, position, 0);
         }
     }
 
@@ -338,20 +851,19 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param moveOut      If state should change. If "false" returns to the original position
      * @param moveToRight If moveOut is true, this parameter tells if move is to the right or left
      * @param position  Position of list
+     * @param toDismiss true if the swipe dismisses the row
+     * @param velocity  horizontal velocity of the row in pixels per second, used by spring settles
      */
-    private void generateAnimation(final View view, final boolean moveOut, final boolean moveToRight, final int position) {
+    private void generateAnimation(final View view, final boolean moveOut, final boolean moveToRight, final int position, boolean toDismiss, float velocity) {
         if(SwipeListView.DEBUG){
             Log.d(SwipeListView.TAG, "moveOut: " + moveOut + " - moveToRight: " + moveToRight + " - position: " + position);
         }
 
-        boolean toDismiss = !opened.get(downPosition)
-                && (swipingRight && swipeActionRight == SwipeListView.SWIPE_ACTION_DISMISS
-                || !swipingRight && swipeActionLeft == SwipeListView.SWIPE_ACTION_DISMISS);
         if (toDismiss) {
-            generateDismissAnimate(parentView, moveOut, moveToRight, position);
+            generateDismissAnimate(parentView, moveOut, moveToRight, position, velocity);
         }
         else {
-            generateTranslateAnimate(view, moveOut, moveToRight, position);
+            generateTranslateAnimate(view, moveOut, moveToRight, position, velocity);
         }
     }
 
@@ -362,11 +874,13 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param moveOut      If will change state. If is "false" returns to the original position
      * @param moveToRight If moveOut is true, this parameter tells if move is to the right or left
      * @param position  Position of list
+     * @param velocity  horizontal velocity of the row in pixels per second
      */
-    private void generateDismissAnimate(final View view, final boolean moveOut, final boolean moveToRight, final int position) {
+    private void generateDismissAnimate(final View view, final boolean moveOut, final boolean moveToRight, final int position, float velocity) {
+        float carriedVelocity = interruptSettle(view);
         int moveTo = 0;
 
-        if (!opened.get(position) && moveOut) {
+        if (!isOpened(position) && moveOut) {
             moveTo = moveToRight ? viewWidth : -viewWidth;
         }
 
@@ -376,21 +890,39 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
             alpha = 0;
         }
 
-        view.animate()
-                .translationX(moveTo)
-                .alpha(alpha)
-                .setDuration(animationTime)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        if (moveOut) {
-                            closeOpenedItems();
-                            performDismiss(view, position, true);
-                        }
-                        resetCell();
-                    }
-                });
+        RowAnimator rowAnimator = getRowAnimator(view);
+        rowAnimator.set(RowAnimator.DISMISS, moveOut, moveToRight, position);
+        if (moveOut && isDismissPipelined()) {
+            setDismissTransientState(view, true);
+        }
+        if (layerPolicy != SwipeListView.SWIPE_LAYER_NONE) {
+            acquireLayer(view);
+        }
+        ViewPropertyAnimator animator = view.animate().translationX(moveTo);
+        if (dismissStyle == SwipeListView.SWIPE_DISMISS_STYLE_FADE) {
+            animator.alpha(alpha);
+        } else {
+            // Slide keeps the row opaque, the alpha may only come from a fade drag before a style change
+            animator.alpha(1);
+        }
+        // Once out of the list the row can't be seen bouncing
+        applySettle(animator, rowAnimator, moveTo, velocity != 0 ? velocity : carriedVelocity, moveOut);
+        animator.setListener(rowAnimator);
+    }
 
+    /**
+     * Called when the dismiss animation of a row finishes
+     *
+     * @param view        affected view
+     * @param moveOut     If state changed
+     * @param position    Position of list
+     */
+    private void onDismissAnimationEnd(View view, boolean moveOut, int position) {
+        if (moveOut) {
+            closeOpenedItems();
+            performDismiss(view, position);
+        }
+        resetCell(position);
     }
 
     /**
@@ -400,87 +932,253 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param moveOut      If will change state. If "false" returns to the original position
      * @param moveToRight If moveOut is true, this parameter tells if movement is toward right or left
      * @param position  list position
+     * @param velocity  horizontal velocity of the row in pixels per second
      */
-    private void generateTranslateAnimate(final View view, final boolean moveOut, final boolean moveToRight, final int position) {
+    private void generateTranslateAnimate(final View view, final boolean moveOut, final boolean moveToRight, final int position, float velocity) {
+        // A row retargeted while settling starts from where it is, with the velocity it had
+        float carriedVelocity = interruptSettle(view);
         int moveTo = 0;
 
-        if (opened.get(position) && !moveOut) {
-            moveTo = openedRight.get(position) ? viewWidth : -viewWidth;
+        if (isOpened(position) && !moveOut) {
+            moveTo = isOpenedRight(position) ? viewWidth : -viewWidth;
         }
-        else if (!opened.get(position) && moveOut) {
+        else if (!isOpened(position) && moveOut) {
             moveTo = moveToRight ? viewWidth : -viewWidth;
         }
 
-        view.animate()
-                .translationX(moveTo)
-                .setDuration(animationTime)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        swipeListView.resetScrolling();
-                        if (!opened.get(position) && moveOut) {
-                            opened.set(position, true);
-                            openedRight.set(position, moveToRight);
-                            swipeListView.onOpened(position, moveToRight);
-                        }
-                        else if (opened.get(position) && moveOut){
-                            opened.set(position, false);
-                            swipeListView.onClosed(position, openedRight.get(position));
-                            openedRight.set(position, false);
-                        }
-                        resetCell();
-                    }
-                });
+        RowAnimator rowAnimator = getRowAnimator(view);
+        rowAnimator.set(RowAnimator.TRANSLATE, moveOut, moveToRight, position);
+        if (layerPolicy != SwipeListView.SWIPE_LAYER_NONE) {
+            acquireLayer(view);
+        }
+        ViewPropertyAnimator animator = view.animate().translationX(moveTo);
+        applySettle(animator, rowAnimator, moveTo, velocity != 0 ? velocity : carriedVelocity, false);
+        animator.setListener(rowAnimator);
     }
 
-    private void resetCell() {
-        if (downPosition != ListView.INVALID_POSITION) {
-//            frontView.setClickable(opened.get(downPosition));
-//            frontView.setLongClickable(opened.get(downPosition));
-            frontView = null;
-            downPosition = ListView.INVALID_POSITION;
+    /**
+     * Sets the duration and easing of a settle: the animation time with the default easing, or the
+     * time a spring launched at the row's velocity takes to bring it to rest
+     *
+     * @param animator     animator of the row
+     * @param rowAnimator  listener of the row, which runs its spring
+     * @param moveTo       target translation
+     * @param velocity     velocity of the row in pixels per second
+     * @param stopAtTarget true if the row leaves the list, so the spring ends when it reaches the target
+     */
+    private void applySettle(ViewPropertyAnimator animator, RowAnimator rowAnimator, float moveTo, float velocity, boolean stopAtTarget) {
+        long duration = animationTime;
+        boolean spring = settleMode == SwipeListView.SWIPE_SETTLE_SPRING;
+        float from = rowAnimator.view.getTranslationX();
+        if (spring) {
+            duration = rowAnimator.startSpring(from - moveTo, velocity, stopAtTarget);
+            animator.setInterpolator(rowAnimator);
+        } else {
+            animator.setInterpolator(TIMED_INTERPOLATOR);
         }
+        animator.setDuration(duration);
+        rowAnimator.beginSettle(from, moveTo, duration, spring);
+        lastSettleDuration = duration;
     }
 
     /**
-     * Set enabled
+     * Stops the settle running on a row view, if any, where the row is. The end of the settle is
+     * never reported, so the item keeps the state it had before it.
      *
-     * @param enabled
+     * @param view row view
+     * @return velocity of the row when stopped in pixels per second, 0 if it was not settling
      */
-    public void setEnabled(boolean enabled) {
-        paused = !enabled;
+    private float interruptSettle(View view) {
+        RowAnimator rowAnimator = view == null ? null : (RowAnimator) view.getTag(R.id.swipelistview__row_animator);
+        return rowAnimator != null && rowAnimator.isInterruptible() ? rowAnimator.interrupt() : 0;
     }
 
     /**
-     * Return ScrollListener for ListView
+     * Stops a row that is still settling under the finger, so the gesture drags it on from where it
+     * is instead of snapping it back to its resting position. Rows leaving the list are not caught.
      *
-     * @return OnScrollListener
+     * @param position item touched
      */
-    public AbsListView.OnScrollListener makeScrollListener() {
-        return new AbsListView.OnScrollListener() {
+    private void catchSettlingRow(int position) {
+        View settlingView = frontView;
+        RowAnimator rowAnimator = (RowAnimator) frontView.getTag(R.id.swipelistview__row_animator);
+        if (rowAnimator == null || !rowAnimator.settling) {
+            settlingView = parentView;
+            rowAnimator = (RowAnimator) parentView.getTag(R.id.swipelistview__row_animator);
+        }
+        if (rowAnimator == null || !rowAnimator.isInterruptible()) {
+            return;
+        }
+        rowAnimator.interrupt();
+        float rest = 0;
+        if (isOpened(position)) {
+            rest = isOpenedRight(position) ? viewWidth : -viewWidth;
+        }
+        engine.catchRow(settlingView.getTranslationX() - rest);
+    }
 
-            private boolean isFirstItem = false;
-            private boolean isLastItem = false;
+    /**
+     * @return number of rows whose settle animation is running
+     */
+    public int getSettlingCount() {
+        return settlingRows.size();
+    }
 
-            @Override
-            public void onScrollStateChanged(AbsListView absListView, int scrollState) {
-                setEnabled(scrollState != OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
-                if (swipeClosesAllItemsWhenListMoves && scrollState == SCROLL_STATE_TOUCH_SCROLL) {
-                    closeOpenedItems();
-                }
-                if (scrollState == SCROLL_STATE_TOUCH_SCROLL) {
-                    listViewMoving = true;
-                    setEnabled(false);
-                }
-                if (scrollState != OnScrollListener.SCROLL_STATE_FLING && scrollState != SCROLL_STATE_TOUCH_SCROLL) {
-                    listViewMoving = false;
-                    downPosition = ListView.INVALID_POSITION;
+    /**
+     * Called when the translate animation of a row finishes
+     *
+     * @param moveOut     If state changed
+     * @param moveToRight If moveOut is true, this parameter tells if movement was toward right or left
+     * @param position    Position of list
+     */
+    private void onTranslateAnimationEnd(boolean moveOut, boolean moveToRight, int position) {
+        swipeListView.resetScrolling();
+        if (!isOpened(position) && moveOut) {
+            markOpened(position, moveToRight);
+            swipeListView.onOpened(position, moveToRight);
+            if (metrics != null) {
+                metrics.recordOpen();
+            }
+            if (swipeSingleOpen) {
+                closeOpenedItems(position);
+            }
+        }
+        else if (isOpened(position) && moveOut){
+            closeItem(position);
+        }
+        resetCell(position);
+    }
+
+    /**
+     * Marks an item as closed and notifies it
+     *
+     * @param position Position of list
+     */
+    private void closeItem(int position) {
+        boolean fromRight = isOpenedRight(position);
+        markClosed(position);
+        swipeListView.onClosed(position, fromRight);
+        if (metrics != null) {
+            metrics.recordClose();
+        }
+    }
+
+    /**
+     * Returns the reusable animation listener of a view, creating it the first time the view is animated
+     *
+     * @param view affected view
+     * @return RowAnimator stored in the view's tag
+     */
+    private RowAnimator getRowAnimator(View view) {
+        RowAnimator rowAnimator = (RowAnimator) view.getTag(R.id.swipelistview__row_animator);
+        if (rowAnimator == null) {
+            rowAnimator = new RowAnimator(view);
+            view.setTag(R.id.swipelistview__row_animator, rowAnimator);
+        }
+        return rowAnimator;
+    }
+
+    /**
+     * Draws a row view into a hardware layer until {@link #releaseLayer(View)}. Translating or fading a
+     * layer only recomposes it, the row content is not redrawn on every frame.
+     *
+     * @param view row view
+     */
+    private void acquireLayer(View view) {
+        RowAnimator rowAnimator = getRowAnimator(view);
+        if (!rowAnimator.layered) {
+            rowAnimator.layered = true;
+            rowAnimator.previousLayerType = view.getLayerType();
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            activeLayerCount++;
+        }
+    }
+
+    /**
+     * Gives a row view back the layer type it had before {@link #acquireLayer(View)}
+     *
+     * @param view row view, may be null
+     */
+    private void releaseLayer(View view) {
+        if (view == null) {
+            return;
+        }
+        RowAnimator rowAnimator = (RowAnimator) view.getTag(R.id.swipelistview__row_animator);
+        if (rowAnimator != null && rowAnimator.layered) {
+            rowAnimator.layered = false;
+            view.setLayerType(rowAnimator.previousLayerType, null);
+            activeLayerCount--;
+        }
+    }
+
+    /**
+     * Releases the layer of the dragged view, unless the settle animation keeps animating it
+     *
+     * @param settlingView view that settles after the drag, or null
+     */
+    private void releaseDragLayer(View settlingView) {
+        if (dragLayerView != settlingView) {
+            releaseLayer(dragLayerView);
+        }
+        dragLayerView = null;
+    }
+
+    /**
+     * Forgets the row of the last gesture once its animation has ended. Animations of other rows,
+     * or of a row that is touched again, leave the gesture alone.
+     *
+     * @param position Position of the animated row
+     */
+    private void resetCell(int position) {
+        if (engine.getPosition() == position && !engine.isTracking()) {
+//            frontView.setClickable(opened.get(downPosition));
+//            frontView.setLongClickable(opened.get(downPosition));
+            frontView = null;
+            engine.clearPosition();
+        }
+    }
+
+    /**
+     * Set enabled
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        engine.setPaused(!enabled);
+    }
+
+    /**
+     * Return ScrollListener for ListView
+     *
+     * @return OnScrollListener
+     */
+    public AbsListView.OnScrollListener makeScrollListener() {
+        return new AbsListView.OnScrollListener() {
+
+            private boolean isFirstItem = false;
+            private boolean isLastItem = false;
+            private int scrollState = SCROLL_STATE_IDLE;
+
+            @Override
+            public void onScrollStateChanged(AbsListView absListView, int scrollState) {
+                this.scrollState = scrollState;
+                if (scrollState == SCROLL_STATE_IDLE) {
+                    prefetchTrigger.onScrollIdle();
+                }
+                setEnabled(scrollState != OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
+                if (swipeClosesAllItemsWhenListMoves && scrollState == SCROLL_STATE_TOUCH_SCROLL) {
+                    closeOpenedItems();
+                }
+                if (scrollState == SCROLL_STATE_TOUCH_SCROLL) {
+                    listViewMoving = true;
+                    setEnabled(false);
+                }
+                if (scrollState != OnScrollListener.SCROLL_STATE_FLING && scrollState != SCROLL_STATE_TOUCH_SCROLL) {
+                    listViewMoving = false;
+                    engine.clearPosition();
                     swipeListView.resetScrolling();
-                    new Handler().postDelayed(new Runnable() {
-                        public void run() {
-                            setEnabled(true);
-                        }
-                    }, 500);
+                    swipeListView.removeCallbacks(enableRunnable);
+                    swipeListView.postDelayed(enableRunnable, 500);
                 }
 
                 int bottomViewPosition = absListView.getFirstVisiblePosition() + absListView.getChildCount() - 1;
@@ -523,24 +1221,163 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
                         swipeListView.onLastListItem();
                     }
                 }
+                if (visibleItemCount > 0) {
+                    View first = absListView.getChildAt(0);
+                    float row = firstVisibleItem;
+                    if (first != null && first.getHeight() > 0) {
+                        row += Math.min(1f, Math.max(0f, (float) -first.getTop() / first.getHeight()));
+                    }
+                    if (prefetchTrigger.onScroll(SystemClock.uptimeMillis(), row, visibleItemCount, totalItemCount,
+                            scrollState != SCROLL_STATE_IDLE)) {
+                        swipeListView.onPrefetch(firstVisibleItem + visibleItemCount - 1, totalItemCount);
+                    }
+                }
             }
         };
     }
 
+    /**
+     * Sets how close to the end of the list the next page is requested
+     *
+     * @param prefetchDistance rows left below the last visible one
+     * @param lookahead        the rows the list will scroll through in this time (ms) are added to the distance
+     */
+    public void setPrefetchDistance(int prefetchDistance, long lookahead) {
+        prefetchTrigger.setDistance(prefetchDistance);
+        prefetchTrigger.setLookahead(lookahead);
+    }
+
+    public int getPrefetchDistance() {
+        return prefetchTrigger.getDistance();
+    }
+
     /**
      * Close all opened items
      */
     void closeOpenedItems() {
-        if (opened != null) {
-            int start = swipeListView.getFirstVisiblePosition();
-            int end = swipeListView.getLastVisiblePosition();
-            for (int i = start; i <= end; i++) {
-                if (opened.get(i)) {
-                    closeAnimate(swipeListView.getChildAt(i - start).findViewById(swipeFrontView), i);
-                }
+        closeOpenedItems(ListView.INVALID_POSITION);
+    }
+
+    /**
+     * Closes the opened items, visiting only the opened ones. Visible rows animate, rows that scrolled
+     * off screen are closed right away. The row under the finger is left alone.
+     *
+     * @param exceptPosition item kept opened, ListView.INVALID_POSITION to close them all
+     */
+    private void closeOpenedItems(int exceptPosition) {
+        if (swipeListView.getAdapter() == null) {
+            return;
+        }
+        int start = getFirstVisibleItem();
+        int end = getLastVisibleItem();
+        int touched = engine.isTracking() ? engine.getPosition() : ListView.INVALID_POSITION;
+        if (stableIds) {
+            // Ids have no position, they are looked up in the visible rows first
+            int[] positions = getOpenPositions();
+            for (int position : positions) {
+                closeOpenedItem(position, start, end, exceptPosition, touched);
+            }
+            return;
+        }
+        for (int position = swipeStates.nextOpened(0); position >= 0; position = swipeStates.nextOpened(position + 1)) {
+            closeOpenedItem(position, start, end, exceptPosition, touched);
+        }
+    }
+
+    private void closeOpenedItem(int position, int start, int end, int exceptPosition, int touched) {
+        if (position == exceptPosition || position == touched) {
+            return;
+        }
+        if (position >= start && position <= end) {
+            closeAnimate(getFrontView(swipeListView.getChildAt(position - start)), position);
+        } else {
+            closeItem(position);
+        }
+    }
+
+    /**
+     * @return number of opened items
+     */
+    public int getOpenCount() {
+        return stableIds ? swipeIdStates.getOpenCount() : swipeStates.getOpenCount();
+    }
+
+    /**
+     * Positions of the opened items in ascending order. Without stable ids only the opened items are visited.
+     * With stable ids the visible rows are checked first, and the rest of the adapter is only scanned
+     * while some opened ids are still missing.
+     *
+     * @return positions of the opened items
+     */
+    public int[] getOpenPositions() {
+        int count = getOpenCount();
+        int[] positions = new int[count];
+        int found = 0;
+        if (stableIds) {
+            ListAdapter adapter = swipeListView.getDataAdapter();
+            int itemCount = adapter != null ? adapter.getCount() : 0;
+            int start = Math.max(0, getFirstVisibleItem());
+            int end = Math.max(start, Math.min(getLastVisibleItem() + 1, itemCount));
+            swipeIdStates.beginMark();
+            found = findOpenPositions(adapter, start, end, positions, found);
+            found = findOpenPositions(adapter, 0, Math.min(start, itemCount), positions, found);
+            found = findOpenPositions(adapter, end, itemCount, positions, found);
+            Arrays.sort(positions, 0, found);
+        } else {
+            for (int position = swipeStates.nextOpened(0); position >= 0 && found < count;
+                 position = swipeStates.nextOpened(position + 1)) {
+                positions[found++] = position;
+            }
+        }
+        return found == count ? positions : Arrays.copyOf(positions, found);
+    }
+
+    /**
+     * Adds the positions of the opened ids found between from and to, until every opened id is found
+     *
+     * @return number of positions found so far
+     */
+    private int findOpenPositions(ListAdapter adapter, int from, int to, int[] positions, int found) {
+        for (int i = from; i < to && !swipeIdStates.isAllMarked(); i++) {
+            if (swipeIdStates.mark(adapter.getItemId(i))) {
+                positions[found++] = i;
             }
         }
+        return found;
+    }
 
+    /**
+     * Ids of the opened items. With stable ids this only copies the open index.
+     *
+     * @return ids of the opened items
+     */
+    public long[] getOpenItemIds() {
+        if (stableIds) {
+            long[] ids = new long[swipeIdStates.getOpenCount()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = swipeIdStates.getOpenId(i);
+            }
+            return ids;
+        }
+        int[] positions = getOpenPositions();
+        long[] ids = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ids[i] = getItemId(positions[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Keeps at most one item opened: opening an item closes the others
+     *
+     * @param swipeSingleOpen true for accordion behavior
+     */
+    public void setSwipeSingleOpen(boolean swipeSingleOpen) {
+        this.swipeSingleOpen = swipeSingleOpen;
+    }
+
+    public boolean isSwipeSingleOpen() {
+        return swipeSingleOpen;
     }
 
     /**
@@ -555,219 +1392,301 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
 
         if (viewWidth < 2) {
             viewWidth = swipeListView.getWidth();
+            engine.setViewWidth(viewWidth);
         }
 
         switch (motionEvent.getActionMasked()) {
             case MotionEvent.ACTION_DOWN: {
-                if (paused && downPosition != ListView.INVALID_POSITION) {
+                if (engine.isPaused() && engine.getPosition() != ListView.INVALID_POSITION) {
                     return false;
                 }
 
-                int childCount = swipeListView.getChildCount();
-                int[] listViewCoords = new int[2];
-                swipeListView.getLocationOnScreen(listViewCoords);
-                int x = (int) motionEvent.getRawX() - listViewCoords[0];
-                int y = (int) motionEvent.getRawY() - listViewCoords[1];
-                View child;
-                for (int i = 0; i < childCount; i++) {
-                    child = swipeListView.getChildAt(i);
-                    child.getHitRect(rect);
-
-                    int childPosition = swipeListView.getPositionForView(child);
+                int childIndex = findChildIndexAt((int) motionEvent.getX(), (int) motionEvent.getY());
+                if (childIndex >= 0) {
+                    View child = swipeListView.getChildAt(childIndex);
+                    int childPosition = swipeListView.getFirstVisiblePosition() + childIndex;
 
                     // dont allow swiping if this is on the header or footer or IGNORE_ITEM_VIEW_TYPE or enabled is false on the adapter
                     boolean isEnabled = swipeListView.getAdapter().isEnabled(childPosition);
                     boolean isIgnored = swipeListView.getAdapter().getItemViewType(childPosition) >= 0;
                     boolean allowSwipe = isEnabled && isIgnored;
 
-                    if (allowSwipe && rect.contains(x, y)) {
+                    if (allowSwipe) {
                         setParentView(child);
-                        setFrontView(child.findViewById(swipeFrontView));
-
-                        downX = motionEvent.getRawX();
-                        downPosition = childPosition - swipeListView.getHeaderViewsCount();
+                        setFrontView(getFrontView(child));
 
 //                        frontView.setClickable(!opened.get(downPosition));
 //                        frontView.setLongClickable(!opened.get(downPosition));
 
-                        velocityTracker = VelocityTracker.obtain();
-                        velocityTracker.addMovement(motionEvent);
-//                        break;
+                        if (engine.down(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                                childPosition - swipeListView.getHeaderViewsCount())) {
+                            catchSettlingRow(childPosition - swipeListView.getHeaderViewsCount());
+                        }
+                        startVelocityTracking(motionEvent);
+                        gestureDownTime = motionEvent.getEventTime();
+                        gestureTranslated = false;
+                        break;
                     }
                 }
+                startVelocityTracking(motionEvent);
+                engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                        SwipeGestureEngine.TOUCH_DOWN, 0, 0);
                 // don't steal child click event
 //                view.onTouchEvent(motionEvent);
 //                return false;
+                break;
             }
             case MotionEvent.ACTION_CANCEL: {
-                if (velocityTracker == null || !swiping || downPosition == ListView.INVALID_POSITION) {
-                    break;
-                }
-                frontView.animate().translationX(0).setDuration(cancelAnimationDuration);
-                velocityTracker.recycle();
-                velocityTracker = null;
-                downX = 0;
-                swiping = false;
+                cancelDragFrame();
+                engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                        SwipeGestureEngine.TOUCH_CANCEL, 0, 0);
+                updateFrameDropMonitor();
+                scheduleDismissFrame();
                 break;
             }
             case MotionEvent.ACTION_UP: {
-                if (velocityTracker == null || !swiping || downPosition == ListView.INVALID_POSITION) {
-                    break;
+                cancelDragFrame();
+                gestureUpTime = motionEvent.getEventTime();
+                trackVelocity(motionEvent);
+                engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                        SwipeGestureEngine.TOUCH_UP, velocityX, velocityY);
+                updateFrameDropMonitor();
+                scheduleDismissFrame();
+                break;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                boolean wasSwiping = engine.isSwiping();
+                addHistoricalSamples(motionEvent);
+                trackVelocity(motionEvent);
+                boolean consumed = engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(),
+                        motionEvent.getRawY(), SwipeGestureEngine.TOUCH_MOVE, velocityX, velocityY);
+                if (!wasSwiping && engine.isSwiping()) {
+                    // The list only needs to see the cancel once to drop its pending click or long press
+                    swipeListView.requestDisallowInterceptTouchEvent(true);
+                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
+                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
+                            (motionEvent.getActionIndex() << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+                    swipeListView.onTouchEvent(cancelEvent);
+                    cancelEvent.recycle();
                 }
+                return consumed;
+            }
+        }
+        return false;
+    }
 
-                float deltaX = motionEvent.getRawX() - downX;
-                velocityTracker.addMovement(motionEvent);
-                velocityTracker.computeCurrentVelocity(1000);
-                float velocityX = velocityTracker.getXVelocity();
-                float velocityXAbs = Math.abs(velocityX);
-                if (!opened.get(downPosition)) {
-                    if (swipeMode == SwipeListView.SWIPE_MODE_LEFT && velocityX > 0) {
-                        velocityXAbs = 0;
-                    }
-                    if (swipeMode == SwipeListView.SWIPE_MODE_RIGHT && velocityX < 0) {
-                        velocityXAbs = 0;
-                    }
-                }
+    /**
+     * @return row of the gesture in progress, ListView.INVALID_POSITION if no row is being tracked
+     */
+    int getTrackedPosition() {
+        return engine.isTracking() ? engine.getPosition() : ListView.INVALID_POSITION;
+    }
+
+    /**
+     * Starts measuring the velocity of a new gesture. The tracker is obtained once and reused.
+     *
+     * @param motionEvent down event
+     */
+    private void startVelocityTracking(MotionEvent motionEvent) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        } else {
+            velocityTracker.clear();
+        }
+        velocityTracker.addMovement(motionEvent);
+        velocityX = 0;
+        velocityY = 0;
+    }
 
-                float velocityY = Math.abs(velocityTracker.getYVelocity());
-                boolean moveOut = false;
-                boolean moveToRight = false;
-                boolean opened = this.opened.get(downPosition);
-                if (minFlingVelocity <= velocityXAbs && velocityXAbs <= maxFlingVelocity && velocityY * 2 < velocityXAbs) {
-                    moveToRight = velocityX > 0;
+    /**
+     * Adds an event to the velocity of the gesture, batched samples included
+     *
+     * @param motionEvent move or up event
+     */
+    private void trackVelocity(MotionEvent motionEvent) {
+        if (velocityTracker == null) {
+            startVelocityTracking(motionEvent);
+            return;
+        }
+        velocityTracker.addMovement(motionEvent);
+        velocityTracker.computeCurrentVelocity(1000);
+        velocityX = velocityTracker.getXVelocity();
+        velocityY = velocityTracker.getYVelocity();
+    }
 
-                    if (SwipeListView.DEBUG) {
-                        Log.d(SwipeListView.TAG, "moveToRight: " + moveToRight + " - swipingRight: " + swipingRight);
-                    }
+    /**
+     * @return horizontal velocity in pixels per second given to the engine with the last move or up
+     */
+    float getVelocityX() {
+        return velocityX;
+    }
 
-                    // この時点でフリング動作は確定
-                    if (!opened && moveToRight && (!swipingRight || swipeActionRight == SwipeListView.SWIPE_ACTION_NONE)) {
-                        moveOut = false;
-                    } else if (!opened && !moveToRight && (swipingRight || swipeActionLeft == SwipeListView.SWIPE_ACTION_NONE)) {
-                        moveOut = false;
-                    // 右に開いている状態で右にフリングは無視
-                    } else if (opened && openedRight.get(downPosition) && moveToRight) {
-                        moveOut = false;
-                    // 左に開いている状態で左にフリングは無視
-                    } else if (opened && !openedRight.get(downPosition) && !moveToRight) {
-                        moveOut = false;
-                    } else {
-                        moveOut = true;
-                    }
-                } else if (Math.abs(deltaX) > viewWidth / 2) {
-                    moveToRight = deltaX > 0;
-                    // この時点でフリング動作は確定
-                    if (!opened && moveToRight && swipeActionRight == SwipeListView.SWIPE_ACTION_NONE) {
-                        moveOut = false;
-                    } else if (!opened && !moveToRight && swipeActionLeft == SwipeListView.SWIPE_ACTION_NONE) {
-                        moveOut = false;
-                        // 右に開いている状態で右にフリングは無視
-                    } else {
-                        moveOut = true;
-                    }
-                }
+    /**
+     * @return vertical velocity in pixels per second given to the engine with the last move or up
+     */
+    float getVelocityY() {
+        return velocityY;
+    }
 
-                generateAnimation(frontView, moveOut, moveToRight, downPosition);
+    /**
+     * Feeds the engine with the samples batched in an event before its current one
+     *
+     * @param motionEvent event
+     */
+    private void addHistoricalSamples(MotionEvent motionEvent) {
+        // Historical coordinates are local, raw and local coordinates differ by a constant within one event
+        float rawOffsetX = motionEvent.getRawX() - motionEvent.getX();
+        float rawOffsetY = motionEvent.getRawY() - motionEvent.getY();
+        int historySize = motionEvent.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            engine.addHistoricalSample(motionEvent.getHistoricalEventTime(i),
+                    motionEvent.getHistoricalX(i) + rawOffsetX, motionEvent.getHistoricalY(i) + rawOffsetY);
+        }
+    }
 
-                velocityTracker.recycle();
-                velocityTracker = null;
-                downX = 0;
-                swiping = false;
-                break;
-            }
-            case MotionEvent.ACTION_MOVE: {
-                if (velocityTracker == null || paused || downPosition == ListView.INVALID_POSITION) {
-                    break;
-                }
+    /**
+     * Turns the commands of the gesture engine into row translations and animations
+     */
+    private class GestureHost implements SwipeGestureEngine.Host {
 
-                velocityTracker.addMovement(motionEvent);
-                velocityTracker.computeCurrentVelocity(1000);
-                float velocityX = Math.abs(velocityTracker.getXVelocity());
-                float velocityY = Math.abs(velocityTracker.getYVelocity());
+        @Override
+        public boolean isOpened(int position) {
+            return SwipeListViewTouchListener.this.isOpened(position);
+        }
 
-                float deltaX = motionEvent.getRawX() - downX;
-                float deltaXAbs = Math.abs(deltaX);
+        @Override
+        public boolean isOpenedRight(int position) {
+            return SwipeListViewTouchListener.this.isOpenedRight(position);
+        }
 
-                int swipeMode = this.swipeMode;
-                int changeSwipeMode = swipeListView.changeSwipeMode(downPosition);
-                if (changeSwipeMode >= 0) {
-                    swipeMode = changeSwipeMode;
-                }
+        @Override
+        public int getSwipeMode(int position) {
+            return swipeListView.changeSwipeMode(position);
+        }
 
-                if (swipeMode == SwipeListView.SWIPE_MODE_NONE) {
-                    break;
-                }
+        @Override
+        public void onSwipeStart(int position, boolean opened, boolean right) {
+            inflateBackView(parentView, position);
+            if (opened) {
+                swipeListView.onStartClose(position, right);
+            } else {
+                swipeListView.onStartOpen(position, right);
+            }
+        }
 
-                if (swipeMode != SwipeListView.SWIPE_MODE_BOTH) {
-                    if (opened.get(downPosition)) {
-                        // 開いている方向に更にスワイプしても何もしない
-                        if (swipeMode == SwipeListView.SWIPE_MODE_LEFT && deltaX < 0) {
-                            break;
-                        } else if (swipeMode == SwipeListView.SWIPE_MODE_RIGHT && deltaX > 0) {
-                            break;
-                        }
-                    } else {
-                        // 閉じている方向に更にスワイプしても何もしない
-                        if (swipeMode == SwipeListView.SWIPE_MODE_LEFT && deltaX > 0) {
-                            break;
-                        } else if (swipeMode == SwipeListView.SWIPE_MODE_RIGHT && deltaX < 0) {
-                            break;
-                        }
-                    }
-                }
+        @Override
+        public void onTranslate(int position, float deltaX, boolean dismiss) {
+            if (SwipeListView.DEBUG) {
+                Log.d(SwipeListView.TAG, "deltaX: " + deltaX + " - swipingRight: " + engine.isSwipingRight());
+            }
+            move(deltaX, dismiss);
+        }
 
-                if (deltaXAbs > slop && velocityY < velocityX) {
-                    if (!swiping || swipingRight != (deltaX > 0)) {
-                        if (opened.get(downPosition)) {
-                            swipeListView.onStartClose(downPosition, swipingRight);
-                        } else {
-                            swipeListView.onStartOpen(downPosition, swipingRight);
-                        }
-                    }
-                    swiping = true;
-                    swipingRight = deltaX > 0;
+        @Override
+        public void onTranslationPending(int position) {
+            scheduleDragFrame();
+        }
 
-                    if (SwipeListView.DEBUG) {
-                        Log.d(SwipeListView.TAG, "deltaX: " + deltaX + " - swipingRight: " + swipingRight);
-                    }
+        @Override
+        public void onSettle(int position, boolean moveOut, boolean moveToRight, boolean dismiss, float velocityX) {
+            releaseDragLayer(dismiss ? parentView : frontView);
+            if (metrics != null && gestureTranslated) {
+                metrics.recordGestureDuration(gestureUpTime - gestureDownTime);
+                gestureSettleStart = SystemClock.uptimeMillis();
+                latestSettleStart = gestureSettleStart;
+            }
+            generateAnimation(frontView, moveOut, moveToRight, position, dismiss, velocityX);
+            if (gestureSettleStart != 0) {
+                // Dismisses settle and then collapse
+                settleDeadline = gestureSettleStart + lastSettleDuration + animationTime;
+            }
+            gestureSettleStart = 0;
+        }
 
-                    swipeListView.requestDisallowInterceptTouchEvent(true);
-                    MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
-                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL |
-                            (motionEvent.getActionIndex() << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
-                    swipeListView.onTouchEvent(cancelEvent);
-                }
+        @Override
+        public void onCancel(int position) {
+            releaseDragLayer(null);
+            interruptSettle(frontView);
+            frontView.animate().translationX(0).setInterpolator(TIMED_INTERPOLATOR)
+                    .setDuration(cancelAnimationDuration).setListener(null);
+        }
+    }
 
-                if (swiping && downPosition != ListView.INVALID_POSITION) {
-                    if (opened.get(downPosition)) {
-                        deltaX += openedRight.get(downPosition) ? viewWidth : -viewWidth;
+    /**
+     * Renders the drag on the next display frame. Several touch events within one frame produce one translation.
+     */
+    @TargetApi(VERSION_CODES.JELLY_BEAN)
+    private void scheduleDragFrame() {
+        if (!dragFramePending) {
+            dragFramePending = true;
+            swipeListView.postOnAnimation(dragFrame);
+        }
+    }
+
+    /**
+     * Drops a drag frame that has not been rendered yet
+     */
+    private void cancelDragFrame() {
+        if (dragFramePending) {
+            dragFramePending = false;
+            swipeListView.removeCallbacks(dragFrame);
+        }
+    }
+
+    /**
+     * Finds the visible row under a point. Rows are laid out top to bottom, so a binary search
+     * on their bounds avoids walking every child. Bounds include the translation of the rows, like
+     * View.getHitRect, so the rows sliding up over a translate collapse are hit where they are drawn.
+     *
+     * @param x X in list coordinates
+     * @param y Y in list coordinates
+     * @return child index or -1 if no row is under the point
+     */
+    private int findChildIndexAt(int x, int y) {
+        int childCount = swipeListView.getChildCount();
+        int low = 0;
+        int high = childCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            View child = swipeListView.getChildAt(middle);
+            float translationY = child.getTranslationY();
+            if (y < child.getTop() + translationY) {
+                high = middle - 1;
+            } else if (y >= child.getBottom() + translationY) {
+                low = middle + 1;
+            } else {
+                // A collapsing row overlaps the rows sliding over it, the last one is drawn on top
+                for (int i = middle + 1; i < childCount; i++) {
+                    View next = swipeListView.getChildAt(i);
+                    if (y < next.getTop() + next.getTranslationY()) {
+                        break;
                     }
-                    if (pullDirection && !opened.get(downPosition)) {
-                        deltaX *= openedRight.get(downPosition) ? rightOffsetPer : leftOffsetPer;
+                    if (y < next.getBottom() + next.getTranslationY()) {
+                        middle = i;
+                        child = next;
                     }
-
-                    boolean toDismiss = !opened.get(downPosition)
-                            && (swipingRight && swipeActionRight == SwipeListView.SWIPE_ACTION_DISMISS
-                            || !swipingRight && swipeActionLeft == SwipeListView.SWIPE_ACTION_DISMISS);
-                    move(deltaX, toDismiss);
-                    return true;
                 }
-                break;
+                float translationX = child.getTranslationX();
+                if (child.getVisibility() != View.VISIBLE
+                        || x < child.getLeft() + translationX || x >= child.getRight() + translationX) {
+                    return -1;
+                }
+                return middle;
             }
         }
-        return false;
+        return -1;
     }
 
     private void setActionsTo(int action) {
-        oldSwipeActionRight = swipeActionRight;
-        oldSwipeActionLeft = swipeActionLeft;
-        swipeActionRight = action;
-        swipeActionLeft = action;
+        oldSwipeActionRight = engine.getSwipeActionRight();
+        oldSwipeActionLeft = engine.getSwipeActionLeft();
+        engine.setSwipeActionRight(action);
+        engine.setSwipeActionLeft(action);
     }
 
     protected void returnOldActions() {
-        swipeActionRight = oldSwipeActionRight;
-        swipeActionLeft = oldSwipeActionLeft;
+        engine.setSwipeActionRight(oldSwipeActionRight);
+        engine.setSwipeActionLeft(oldSwipeActionLeft);
     }
 
     /**
@@ -776,29 +1695,28 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param deltaX delta
      */
     public void move(float deltaX, boolean dismiss) {
-        swipeListView.onMove(downPosition, deltaX);
-        float posX = frontView.getX();
-        if (opened.get(downPosition)) {
-            posX += openedRight.get(downPosition) ? -viewWidth : viewWidth;
-        }
-        if (posX > 0 && !swipingRight) {
-            if(SwipeListView.DEBUG){
-                Log.d(SwipeListView.TAG, "change to right");
-            }
-            swipingRight = !swipingRight;
+        if (metrics != null && engine.isTracking() && !gestureTranslated) {
+            gestureTranslated = true;
+            metrics.recordTouchLatency(SystemClock.uptimeMillis() - gestureDownTime);
+            updateFrameDropMonitor();
         }
-        if (posX < 0 && swipingRight) {
-            if(SwipeListView.DEBUG){
-                Log.d(SwipeListView.TAG, "change to left");
+        swipeListView.onMove(engine.getPosition(), deltaX);
+
+        if (layerPolicy == SwipeListView.SWIPE_LAYER_DRAG_AND_SETTLE) {
+            View dragged = dismiss ? parentView : frontView;
+            if (dragLayerView != dragged) {
+                releaseLayer(dragLayerView);
+                acquireLayer(dragged);
+                dragLayerView = dragged;
             }
-            swipingRight = !swipingRight;
         }
-
         if (dismiss) {
             frontView.setTranslationX(0);
             parentView.setTranslationX(deltaX);
-            parentView.setAlpha(Math.max(0f, Math.min(1f,
-                    1f - 2f * Math.abs(deltaX) / viewWidth)));
+            if (dismissStyle == SwipeListView.SWIPE_DISMISS_STYLE_FADE) {
+                parentView.setAlpha(Math.max(0f, Math.min(1f,
+                        1f - 2f * Math.abs(deltaX) / viewWidth)));
+            }
         } else {
             parentView.setTranslationX(0);
             parentView.setAlpha(1f);
@@ -806,31 +1724,223 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
         }
     }
 
+    /**
+     * Sets how dismissed rows collapse
+     *
+     * @param dismissCollapseMode SwipeListView.SWIPE_DISMISS_COLLAPSE_LAYOUT or SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE
+     */
+    public void setDismissCollapseMode(int dismissCollapseMode) {
+        this.dismissCollapseMode = dismissCollapseMode;
+    }
+
+    public int getDismissCollapseMode() {
+        return dismissCollapseMode;
+    }
+
+    /**
+     * Sets when rows are drawn into hardware layers
+     *
+     * @param layerPolicy SwipeListView.SWIPE_LAYER_NONE, SwipeListView.SWIPE_LAYER_SETTLE or SwipeListView.SWIPE_LAYER_DRAG_AND_SETTLE
+     */
+    public void setLayerPolicy(int layerPolicy) {
+        this.layerPolicy = layerPolicy;
+        if (layerPolicy != SwipeListView.SWIPE_LAYER_DRAG_AND_SETTLE) {
+            releaseDragLayer(null);
+        }
+    }
+
+    public int getLayerPolicy() {
+        return layerPolicy;
+    }
+
+    /**
+     * Sets how rows look while they are dismissed
+     *
+     * @param dismissStyle SwipeListView.SWIPE_DISMISS_STYLE_FADE or SwipeListView.SWIPE_DISMISS_STYLE_SLIDE
+     */
+    public void setDismissStyle(int dismissStyle) {
+        this.dismissStyle = dismissStyle;
+    }
+
+    public int getDismissStyle() {
+        return dismissStyle;
+    }
+
+    /**
+     * Sets how rows settle when the finger is lifted or they are opened and closed
+     *
+     * @param settleMode SwipeListView.SWIPE_SETTLE_TIMED or SwipeListView.SWIPE_SETTLE_SPRING
+     */
+    public void setSettleMode(int settleMode) {
+        this.settleMode = settleMode;
+    }
+
+    public int getSettleMode() {
+        return settleMode;
+    }
+
+    /**
+     * Sets the spring of SwipeListView.SWIPE_SETTLE_SPRING
+     *
+     * @param stiffness    spring stiffness, higher settles faster
+     * @param dampingRatio 1 for no bounce, lower bounces around the target, higher approaches it slower
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        this.springStiffness = stiffness > 0 ? stiffness : SwipeListView.DEFAULT_SPRING_STIFFNESS;
+        this.springDampingRatio = dampingRatio > 0 ? dampingRatio : SwipeListView.DEFAULT_SPRING_DAMPING_RATIO;
+    }
+
+    /**
+     * @return number of row views currently drawn into a hardware layer
+     */
+    public int getActiveLayerCount() {
+        return activeLayerCount;
+    }
+
+    /**
+     * Sets when the swiped row is translated
+     *
+     * @param dragRenderMode SwipeListView.SWIPE_DRAG_RENDER_IMMEDIATE or SwipeListView.SWIPE_DRAG_RENDER_FRAME
+     */
+    public void setDragRenderMode(int dragRenderMode) {
+        if (dragRenderMode != SwipeListView.SWIPE_DRAG_RENDER_FRAME) {
+            cancelDragFrame();
+        }
+        this.dragRenderMode = dragRenderMode;
+        engine.setDeferTranslation(dragRenderMode == SwipeListView.SWIPE_DRAG_RENDER_FRAME
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN);
+    }
+
+    /**
+     * Sets the touch prediction used while dragging
+     *
+     * @param touchPredictionMode SwipeListView.SWIPE_TOUCH_PREDICTION_NONE, SWIPE_TOUCH_PREDICTION_LINEAR or SWIPE_TOUCH_PREDICTION_QUADRATIC
+     * @param touchPredictionTime how far ahead the finger position is predicted, in milliseconds
+     */
+    public void setTouchPrediction(int touchPredictionMode, long touchPredictionTime) {
+        engine.setTouchPrediction(touchPredictionMode, touchPredictionTime);
+    }
+
+    /**
+     * @return mean absolute error in pixels of the predicted finger positions
+     */
+    public float getMeanPredictionError() {
+        return engine.getMeanPredictionError();
+    }
+
+    /**
+     * @return mean absolute error in pixels of the last known finger position at the same times,
+     * i.e. what the row would have shown without prediction
+     */
+    public float getMeanUnpredictedError() {
+        return engine.getMeanUnpredictedError();
+    }
+
+    /**
+     * Sets the metrics that record gesture latencies, dropped frames and counts
+     *
+     * @param metrics metrics or null to stop recording
+     */
+    public void setSwipeMetrics(SwipeMetrics metrics) {
+        this.metrics = metrics;
+        if (metrics == null) {
+            settleDeadline = 0;
+        }
+        updateFrameDropMonitor();
+    }
+
+    public SwipeMetrics getSwipeMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Counts frames while a row is dragged or settling after a gesture. Frame callbacks need Jelly Bean,
+     * older platforms only record latencies and counts.
+     */
+    private void updateFrameDropMonitor() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        if (metrics == null) {
+            if (frameDropMonitor != null) {
+                frameDropMonitor.stop();
+            }
+            return;
+        }
+        if (frameDropMonitor == null) {
+            frameDropMonitor = new FrameDropMonitor();
+        }
+        frameDropMonitor.update(metrics, engine.isTracking() && gestureTranslated, settleDeadline);
+    }
+
+    /**
+     * Called when the settle animation that followed a gesture finishes
+     *
+     * @param settleStart uptime in milliseconds when the finger was lifted
+     */
+    private void onGestureSettled(long settleStart) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.recordSettleDuration(SystemClock.uptimeMillis() - settleStart);
+        if (settleStart == latestSettleStart) {
+            settleDeadline = 0;
+            updateFrameDropMonitor();
+        }
+    }
+
     public void setPullDirection(boolean pullDirection) {
-        this.pullDirection = pullDirection;
+        engine.setPullDirection(pullDirection);
     }
 
     public boolean isPullDirection() {
-        return pullDirection;
+        return engine.isPullDirection();
     }
 
     /**
      * Class that saves pending dismiss data
      */
-    class PendingDismissData implements Comparable<PendingDismissData> {
+    class PendingDismissData {
         public int position;
         public View view;
-
-        public PendingDismissData(int position, View view) {
+        // Height of the layout params before the collapse, may be WRAP_CONTENT or MATCH_PARENT
+        int layoutHeight;
+        int collapseMode;
+        long itemId;
+        boolean finished;
+        DismissRequest request;
+
+        void set(int position, View view) {
             this.position = position;
             this.view = view;
+            this.layoutHeight = view != null ? view.getLayoutParams().height : 0;
+            this.collapseMode = dismissCollapseMode;
+            this.itemId = stableIds ? getItemId(position) : ListView.INVALID_ROW_ID;
+            this.finished = false;
+            this.request = null;
         }
+    }
 
-        @Override
-        public int compareTo(PendingDismissData other) {
-            // Sort by descending position
-            return other.position - position;
+    /**
+     * Takes a pending dismiss from the pool, or creates one if the pool is empty
+     */
+    private PendingDismissData obtainPendingDismiss(int position, View view) {
+        int size = dismissPool.size();
+        PendingDismissData dismiss = size > 0 ? dismissPool.remove(size - 1) : new PendingDismissData();
+        dismiss.set(position, view);
+        return dismiss;
+    }
+
+    /**
+     * Returns a reported dismiss to the pool. Unfinished ones may still be referenced by their animation.
+     */
+    private void recyclePendingDismiss(PendingDismissData dismiss) {
+        if (!dismiss.finished || dismissPool.size() >= MAX_POOLED_DISMISSES) {
+            return;
         }
+        dismiss.view = null;
+        dismiss.request = null;
+        dismissPool.add(dismiss);
     }
 
     /**
@@ -839,96 +1949,514 @@ public class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param dismissView     View
      * @param dismissPosition Position of list
      */
-    protected void performDismiss(final View dismissView, final int dismissPosition, boolean doPendingDismiss) {
+    protected void performDismiss(final View dismissView, final int dismissPosition) {
         enableDisableViewGroup((ViewGroup) dismissView, false);
-        final ViewGroup.LayoutParams lp = dismissView.getLayoutParams();
-        final int originalHeight = dismissView.getHeight();
-
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 1).setDuration(animationTime);
-
-        if (doPendingDismiss) {
-            animator.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    --dismissAnimationRefCount;
-                    if (dismissAnimationRefCount == 0) {
-                        removePendingDismisses(originalHeight);
-                    }
-                }
-            });
+        PendingDismissData dismiss = obtainPendingDismiss(dismissPosition, dismissView);
+        pendingDismisses.add(dismiss);
+        getRowAnimator(dismissView).collapse(dismiss);
+    }
+
+    /**
+     * Called when a dismiss animation finishes. Pipelined dismisses are reported on the next frame,
+     * together with the others that finish in the same frame. Otherwise all pending dismisses are
+     * reported when the last animation ends.
+     *
+     * @param dismisses dismisses of the finished animation
+     */
+    private void onDismissAnimationFinished(PendingDismissData[] dismisses) {
+        for (PendingDismissData dismiss : dismisses) {
+            dismiss.finished = true;
         }
+        onDismissAnimationEnded();
+    }
 
-        animator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                enableDisableViewGroup((ViewGroup) dismissView, true);
-            }
-        });
+    /**
+     * Called when the collapse of a swiped row finishes
+     *
+     * @param dismiss dismiss of the row, null if it was already reported
+     */
+    private void onDismissAnimationFinished(PendingDismissData dismiss) {
+        if (dismiss != null) {
+            dismiss.finished = true;
+        }
+        onDismissAnimationEnded();
+    }
 
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                dismissView.setLayoutParams(lp);
-            }
-        });
+    private void onDismissAnimationEnded() {
+        if (dismissAnimationRefCount > 0) {
+            --dismissAnimationRefCount;
+        }
+        reportFinishedDismisses();
+    }
 
-        pendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
-        animator.start();
+    /**
+     * Reports the finished dismisses on the next frame when pipelined, or once nothing is animating
+     */
+    private void reportFinishedDismisses() {
+        if (isDismissPipelined()) {
+            scheduleDismissFrame();
+        } else if (dismissAnimationRefCount == 0) {
+            removePendingDismisses(false);
+        }
     }
 
     /**
-     * Remove all pending dismisses.
+     * Reports the finished pipelined dismisses on the next frame
      */
-    protected void resetPendingDismisses() {
-        pendingDismisses.clear();
+    @TargetApi(VERSION_CODES.JELLY_BEAN)
+    private void scheduleDismissFrame() {
+        if (!dismissFramePending && isDismissPipelined() && !pendingDismisses.isEmpty()) {
+            dismissFramePending = true;
+            swipeListView.postOnAnimation(dismissFrame);
+        }
     }
 
     /**
-     * Will call {@link #removePendingDismisses(int)} in animationTime + 100 ms.
-     * @param originalHeight will be used to rest the cells height.
+     * Reusable animation listener of a row view. It is kept in the view's tag, so settling and
+     * dismissing rows doesn't allocate listeners or box animated values once the rows exist.
      */
-    protected void handlerPendingDismisses(final int originalHeight) {
-        Handler handler = new Handler();
-        handler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                removePendingDismisses(originalHeight);
+    class RowAnimator extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener, TimeInterpolator {
+        static final int TRANSLATE = 0;
+        static final int DISMISS = 1;
+
+        private final View view;
+        private int type;
+        private boolean moveOut;
+        private boolean moveToRight;
+        private int position;
+        private long settleStart;
+        private long itemId;
+        private boolean layered;
+        private int previousLayerType;
+        private boolean transientState;
+        private PendingDismissData pendingDismiss;
+        private SpringSettle spring;
+
+        // Running settle, kept to catch or retarget it without a jump
+        private boolean settling;
+        private boolean springSettle;
+        private float settleFrom;
+        private float settleTo;
+        private long settleRequestTime;
+        private long settleDuration;
+
+        private ValueAnimator collapseAnimator;
+        private int originalHeight;
+        private int collapseMode;
+        private boolean collapseFades;
+        private float collapseStartAlpha;
+        private float collapseOffset;
+
+        RowAnimator(View view) {
+            this.view = view;
+        }
+
+        /**
+         * Sets the parameters of the next translate or dismiss animation
+         */
+        void set(int type, boolean moveOut, boolean moveToRight, int position) {
+            this.type = type;
+            this.moveOut = moveOut;
+            this.moveToRight = moveToRight;
+            this.position = position;
+            this.itemId = stableIds ? getItemId(position) : ListView.INVALID_ROW_ID;
+            this.settleStart = gestureSettleStart;
+        }
+
+        /**
+         * Launches the spring this listener interpolates the next settle with
+         *
+         * @return settle duration in milliseconds
+         */
+        long startSpring(float offset, float velocity, boolean stopAtTarget) {
+            if (spring == null) {
+                spring = new SpringSettle(springStiffness, springDampingRatio);
+            } else {
+                spring.setSpring(springStiffness, springDampingRatio);
+            }
+            return spring.start(offset, velocity, stopAtTarget);
+        }
+
+        @Override
+        public float getInterpolation(float fraction) {
+            return spring == null ? fraction : spring.progress(fraction);
+        }
+
+        /**
+         * @param position item shown by the row
+         * @return true if this settle belongs to the item, by id with stable ids
+         */
+        boolean isFor(int position) {
+            return stableIds ? itemId == getItemId(position) : this.position == position;
+        }
+
+        /**
+         * @return true if a settle runs and may be stopped. Dismissed rows leaving the list always
+         * finish, the dismiss waits for them.
+         */
+        boolean isInterruptible() {
+            return settling && !(type == DISMISS && moveOut);
+        }
+
+        /**
+         * Registers the settle just set on the view animator
+         */
+        void beginSettle(float from, float to, long duration, boolean springSettle) {
+            this.settleFrom = from;
+            this.settleTo = to;
+            this.settleDuration = duration;
+            this.springSettle = springSettle;
+            this.settleRequestTime = SystemClock.uptimeMillis();
+            if (!settling) {
+                settling = true;
+                settlingRows.add(this);
+            }
+        }
+
+        /**
+         * @return velocity of the settling row in pixels per second, estimated from the settle curve
+         */
+        float getSettleVelocity() {
+            if (!settling || settleDuration <= 0) {
+                return 0;
+            }
+            float fraction = Math.max(0f, Math.min(1f,
+                    (float) (SystemClock.uptimeMillis() - settleRequestTime) / settleDuration));
+            if (springSettle) {
+                return spring.velocity(fraction);
+            }
+            // Derivative of the accelerate / decelerate curve, (1 - cos(pi * f)) / 2
+            return (float) ((settleTo - settleFrom) * Math.PI / 2 * Math.sin(Math.PI * fraction)
+                    * 1000 / settleDuration);
+        }
+
+        /**
+         * Stops the settle where the row is. Its end is never reported, and the layer it used is dropped.
+         *
+         * @return velocity of the row when stopped, in pixels per second
+         */
+        float interrupt() {
+            float velocity = getSettleVelocity();
+            settling = false;
+            settlingRows.remove(this);
+            // The end callbacks of the canceled animation see settling false and return
+            view.animate().cancel();
+            releaseLayer(view);
+            settleStart = 0;
+            return velocity;
+        }
+
+        /**
+         * Collapses the view height to 1 pixel
+         *
+         * @param pendingDismiss dismiss finished by the collapse
+         */
+        void collapse(PendingDismissData pendingDismiss) {
+            this.pendingDismiss = pendingDismiss;
+            if (collapseAnimator == null) {
+                collapseAnimator = ValueAnimator.ofFloat(0f, 1f);
+                collapseAnimator.addListener(this);
+                collapseAnimator.addUpdateListener(this);
             }
-        }, animationTime + 100);
+            this.originalHeight = view.getHeight();
+            this.collapseMode = dismissCollapseMode;
+            this.collapseFades = dismissStyle == SwipeListView.SWIPE_DISMISS_STYLE_FADE;
+            this.collapseStartAlpha = view.getAlpha();
+            collapseAnimator.setDuration(animationTime);
+            collapseAnimator.start();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator valueAnimator) {
+            float fraction = valueAnimator.getAnimatedFraction();
+            if (collapseMode == SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE) {
+                collapseOffset = originalHeight * fraction;
+                if (collapseFades) {
+                    view.setAlpha(collapseStartAlpha * (1 - fraction));
+                }
+                applyCollapseTranslation();
+            } else {
+                ViewGroup.LayoutParams lp = view.getLayoutParams();
+                lp.height = originalHeight + (int) ((1 - originalHeight) * fraction);
+                view.setLayoutParams(lp);
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (animation == collapseAnimator) {
+                enableDisableViewGroup((ViewGroup) view, true);
+                PendingDismissData dismiss = pendingDismiss;
+                pendingDismiss = null;
+                onDismissAnimationFinished(dismiss);
+                return;
+            }
+            if (!settling) {
+                // Interrupted, or a cancel that is not ours
+                return;
+            }
+            settling = false;
+            settlingRows.remove(this);
+            // Pipelined dismisses may have moved the item while it was animating
+            position = resolvePosition(itemId, position);
+            // At rest, the layer would only cost memory
+            releaseLayer(view);
+            if (settleStart != 0) {
+                long start = settleStart;
+                settleStart = 0;
+                onGestureSettled(start);
+            }
+            if (type == TRANSLATE) {
+                onTranslateAnimationEnd(moveOut, moveToRight, position);
+            } else {
+                onDismissAnimationEnd(view, moveOut, position);
+            }
+        }
     }
 
     /**
-     * Will delete all pending dismisses.
-     * Will call callback onDismiss for all pending dismisses.
-     * Will reset all cell height to originalHeight.
-     * @param originalHeight is the height of the cell before animation.
+     * Remove all pending dismisses.
      */
-    private void removePendingDismisses(int originalHeight) {
-        // No active animations, process all pending dismisses.
-        // Sort by descending position
-        Collections.sort(pendingDismisses);
+    protected void resetPendingDismisses() {
+        pendingDismisses.clear();
+    }
 
-        int[] dismissPositions = new int[pendingDismisses.size()];
+    /**
+     * Will delete the pending dismisses.
+     * Will call callback onDismiss once for all of them.
+     * Will reset every cell to the layout height it had before its animation. Cells collapsed with a
+     * translation only get their translations back, their layout params are never changed.
+     *
+     * @param finishedOnly true to report only the dismisses whose animation has finished
+     */
+    private void removePendingDismisses(boolean finishedOnly) {
+        if (finishedOnly && engine.isTracking()) {
+            // Reported when the finger is lifted, so the adapter doesn't change under a gesture
+            return;
+        }
+        boolean nested = reportedDismisses == null;
+        List<PendingDismissData> removed = nested ? new ArrayList<PendingDismissData>() : reportedDismisses;
+        reportedDismisses = null;
         for (int i = pendingDismisses.size() - 1; i >= 0; i--) {
-            dismissPositions[i] = pendingDismisses.get(i).position;
+            if (!finishedOnly || pendingDismisses.get(i).finished) {
+                removed.add(pendingDismisses.remove(i));
+            }
+        }
+        if (removed.isEmpty()) {
+            if (!nested) {
+                reportedDismisses = removed;
+            }
+            return;
+        }
+        // Sort by descending position, only the positions need ordering
+        int[] dismissPositions = obtainDismissPositions(removed.size(), nested);
+        for (int i = removed.size() - 1; i >= 0; i--) {
+            PendingDismissData pendingDismiss = removed.get(i);
+            pendingDismiss.position = resolvePosition(pendingDismiss.itemId, pendingDismiss.position);
+            dismissPositions[i] = pendingDismiss.position;
         }
+        PositionArrays.sortDescendingInPlace(dismissPositions);
         swipeListView.onDismiss(dismissPositions);
+        if (metrics != null) {
+            metrics.recordDismiss(dismissPositions.length);
+        }
 
-        ViewGroup.LayoutParams lp;
-        for (PendingDismissData pendingDismiss : pendingDismisses) {
+        boolean translated = false;
+        for (int i = 0; i < removed.size(); i++) {
+            PendingDismissData pendingDismiss = removed.get(i);
             // Reset view presentation
             if (pendingDismiss.view != null) {
+                releaseLayer(pendingDismiss.view);
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                    setDismissTransientState(pendingDismiss.view, false);
+                }
                 pendingDismiss.view.setAlpha(1f);
                 pendingDismiss.view.setTranslationX(0);
-                lp = pendingDismiss.view.getLayoutParams();
-                lp.height = originalHeight;
-                pendingDismiss.view.setLayoutParams(lp);
+                if (pendingDismiss.collapseMode == SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE) {
+                    // The row may have left the list, the rows below it are reset by applyCollapseTranslation
+                    pendingDismiss.view.setTranslationY(0);
+                    translated |= clearCollapseOffset(pendingDismiss.view);
+                } else {
+                    ViewGroup.LayoutParams lp = pendingDismiss.view.getLayoutParams();
+                    if (lp.height != pendingDismiss.layoutHeight) {
+                        lp.height = pendingDismiss.layoutHeight;
+                        pendingDismiss.view.setLayoutParams(lp);
+                    }
+                }
+            }
+        }
+        if (translated) {
+            applyCollapseTranslation();
+        }
+
+        // Every dismiss of a request finishes with the same animation, so they are reported together.
+        // Listeners may start new dismisses, the pending list is already updated.
+        for (int i = 0; i < removed.size(); i++) {
+            DismissRequest request = removed.get(i).request;
+            if (request == null || request.notified) {
+                continue;
+            }
+            request.notified = true;
+            int count = 0;
+            for (int j = i; j < removed.size(); j++) {
+                if (removed.get(j).request == request) {
+                    count++;
+                }
+            }
+            int[] reverseSortedPositions = new int[count];
+            count = 0;
+            for (int j = i; j < removed.size(); j++) {
+                if (removed.get(j).request == request) {
+                    reverseSortedPositions[count++] = removed.get(j).position;
+                }
             }
+            PositionArrays.sortDescendingInPlace(reverseSortedPositions);
+            request.listener.onDismissComplete(reverseSortedPositions);
         }
 
-        resetPendingDismisses();
+        for (int i = 0; i < removed.size(); i++) {
+            recyclePendingDismiss(removed.get(i));
+        }
+        removed.clear();
+        if (!nested) {
+            reportedDismisses = removed;
+        }
+    }
 
+    /**
+     * Positions array for onDismiss, reused between reports of the same size
+     *
+     * @param count  number of dismissed positions
+     * @param nested true if called while another report is running, its array is still in use
+     */
+    private int[] obtainDismissPositions(int count, boolean nested) {
+        if (nested || count >= MAX_POOLED_DISMISSES) {
+            return new int[count];
+        }
+        int[] positions = dismissPositionArrays[count];
+        if (positions == null) {
+            positions = new int[count];
+            dismissPositionArrays[count] = positions;
+        }
+        return positions;
+    }
+
+    /**
+     * Listener waiting for the positions of one dismiss request
+     */
+    static class DismissRequest {
+        final SwipeListView.OnDismissCompleteListener listener;
+        boolean notified;
+
+        DismissRequest(SwipeListView.OnDismissCompleteListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Collapses a group of dismissed rows with one animator
+     */
+    class DismissBatch extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+        private final View[] views;
+        private final int[] originalHeights;
+        private final float[] startAlphas;
+        private final int collapseMode;
+        private final boolean fade;
+        private final ValueAnimator animator;
+        private final PendingDismissData[] dismisses;
+
+        DismissBatch(View[] views, PendingDismissData[] dismisses) {
+            this.views = views;
+            this.dismisses = dismisses;
+            this.collapseMode = dismissCollapseMode;
+            this.fade = dismissStyle == SwipeListView.SWIPE_DISMISS_STYLE_FADE;
+            this.originalHeights = new int[views.length];
+            this.startAlphas = new float[views.length];
+            for (int i = 0; i < views.length; i++) {
+                originalHeights[i] = views[i].getHeight();
+                startAlphas[i] = views[i].getAlpha();
+            }
+            animator = ValueAnimator.ofFloat(0f, 1f).setDuration(animationTime);
+            animator.addListener(this);
+            animator.addUpdateListener(this);
+        }
+
+        void start() {
+            // Fading rows are layered, a collapsing height would rebuild the layer on every frame
+            boolean layered = layerPolicy != SwipeListView.SWIPE_LAYER_NONE && fade
+                    && collapseMode == SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE;
+            for (View view : views) {
+                enableDisableViewGroup((ViewGroup) view, false);
+                if (layered) {
+                    acquireLayer(view);
+                }
+                if (isDismissPipelined()) {
+                    setDismissTransientState(view, true);
+                }
+            }
+            animator.start();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator valueAnimator) {
+            float fraction = valueAnimator.getAnimatedFraction();
+            if (collapseMode == SwipeListView.SWIPE_DISMISS_COLLAPSE_TRANSLATE) {
+                for (int i = 0; i < views.length; i++) {
+                    getRowAnimator(views[i]).collapseOffset = originalHeights[i] * fraction;
+                    if (fade) {
+                        views[i].setAlpha(startAlphas[i] * (1 - fraction));
+                    }
+                }
+                applyCollapseTranslation();
+                return;
+            }
+            for (int i = 0; i < views.length; i++) {
+                ViewGroup.LayoutParams lp = views[i].getLayoutParams();
+                lp.height = originalHeights[i] + (int) ((1 - originalHeights[i]) * fraction);
+                views[i].setLayoutParams(lp);
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            for (View view : views) {
+                enableDisableViewGroup((ViewGroup) view, true);
+                releaseLayer(view);
+            }
+            onDismissAnimationFinished(dismisses);
+        }
+    }
+
+    /**
+     * Moves every visible row up by the collapsed height of the dismissed rows above it.
+     * Used by SWIPE_DISMISS_COLLAPSE_TRANSLATE, it only changes translations so the list is not laid out.
+     */
+    private void applyCollapseTranslation() {
+        float offset = 0;
+        int childCount = swipeListView.getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = swipeListView.getChildAt(i);
+            child.setTranslationY(-offset);
+            RowAnimator rowAnimator = (RowAnimator) child.getTag(R.id.swipelistview__row_animator);
+            if (rowAnimator != null) {
+                offset += rowAnimator.collapseOffset;
+            }
+        }
+    }
+
+    /**
+     * Clears the collapsed height of a dismissed row
+     *
+     * @param view dismissed row
+     * @return true if the row was collapsed with a translation
+     */
+    private boolean clearCollapseOffset(View view) {
+        RowAnimator rowAnimator = (RowAnimator) view.getTag(R.id.swipelistview__row_animator);
+        if (rowAnimator == null || rowAnimator.collapseOffset == 0) {
+            return false;
+        }
+        rowAnimator.collapseOffset = 0;
+        return true;
     }
 
     public static void enableDisableViewGroup(ViewGroup viewGroup, boolean enabled) {
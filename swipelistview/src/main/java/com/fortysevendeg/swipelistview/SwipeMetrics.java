@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.util.Arrays;
+
+/**
+ * Gesture latency and frame metrics of a SwipeListView, kept in fixed-size histograms.
+ *
+ * Set an instance with {@link SwipeListView#setSwipeMetrics(SwipeMetrics)} and read it at any time
+ * with {@link #snapshot()}. Recording happens on the UI thread and never allocates.
+ */
+public class SwipeMetrics {
+
+    /**
+     * Frame interval of a 60 Hz display, in nanoseconds
+     */
+    public static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    private final long frameIntervalNanos;
+
+    private final long[] touchLatency = new long[Histogram.BUCKET_COUNT];
+    private final long[] gestureDuration = new long[Histogram.BUCKET_COUNT];
+    private final long[] settleDuration = new long[Histogram.BUCKET_COUNT];
+    private final long[] stats = new long[6];
+
+    private long dragFrames;
+    private long dragDroppedFrames;
+    private long settleFrames;
+    private long settleDroppedFrames;
+    private long openCount;
+    private long closeCount;
+    private long dismissCount;
+
+    public SwipeMetrics() {
+        this(DEFAULT_FRAME_INTERVAL_NANOS);
+    }
+
+    /**
+     * @param frameIntervalNanos expected interval between display frames, used to count dropped frames
+     */
+    public SwipeMetrics(long frameIntervalNanos) {
+        this.frameIntervalNanos = frameIntervalNanos > 0 ? frameIntervalNanos : DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /**
+     * Time between the touch down and the first translation of the row, in milliseconds
+     */
+    synchronized void recordTouchLatency(long millis) {
+        record(touchLatency, 0, millis);
+    }
+
+    /**
+     * Time between the touch down and the touch up of a swipe, in milliseconds
+     */
+    synchronized void recordGestureDuration(long millis) {
+        record(gestureDuration, 2, millis);
+    }
+
+    /**
+     * Time between the touch up and the end of the settle animation, in milliseconds
+     */
+    synchronized void recordSettleDuration(long millis) {
+        record(settleDuration, 4, millis);
+    }
+
+    /**
+     * Records a rendered frame
+     *
+     * @param settling true if the frame belongs to a settle animation, false while dragging
+     * @param dropped  number of frames missed before this one
+     */
+    synchronized void recordFrame(boolean settling, int dropped) {
+        if (settling) {
+            settleFrames++;
+            settleDroppedFrames += dropped;
+        } else {
+            dragFrames++;
+            dragDroppedFrames += dropped;
+        }
+    }
+
+    synchronized void recordOpen() {
+        openCount++;
+    }
+
+    synchronized void recordClose() {
+        closeCount++;
+    }
+
+    synchronized void recordDismiss(int count) {
+        dismissCount += count;
+    }
+
+    private void record(long[] buckets, int statsIndex, long millis) {
+        if (millis < 0) {
+            millis = 0;
+        }
+        buckets[Histogram.bucketOf(millis)]++;
+        stats[statsIndex] += millis;
+        stats[statsIndex + 1] = Math.max(stats[statsIndex + 1], millis);
+    }
+
+    /**
+     * Clears every metric
+     */
+    public synchronized void reset() {
+        Arrays.fill(touchLatency, 0);
+        Arrays.fill(gestureDuration, 0);
+        Arrays.fill(settleDuration, 0);
+        Arrays.fill(stats, 0);
+        dragFrames = 0;
+        dragDroppedFrames = 0;
+        settleFrames = 0;
+        settleDroppedFrames = 0;
+        openCount = 0;
+        closeCount = 0;
+        dismissCount = 0;
+    }
+
+    /**
+     * @return a copy of the current metrics
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(
+                new Histogram(touchLatency, stats[0], stats[1]),
+                new Histogram(gestureDuration, stats[2], stats[3]),
+                new Histogram(settleDuration, stats[4], stats[5]),
+                dragFrames, dragDroppedFrames, settleFrames, settleDroppedFrames,
+                openCount, closeCount, dismissCount);
+    }
+
+    /**
+     * Immutable copy of the metrics
+     */
+    public static class Snapshot {
+        /**
+         * Touch down to first translation of the row, in milliseconds
+         */
+        public final Histogram touchLatency;
+        /**
+         * Touch down to touch up of swipes, in milliseconds
+         */
+        public final Histogram gestureDuration;
+        /**
+         * Touch up to the end of the settle animation, in milliseconds
+         */
+        public final Histogram settleDuration;
+        public final long dragFrames;
+        public final long dragDroppedFrames;
+        public final long settleFrames;
+        public final long settleDroppedFrames;
+        public final long openCount;
+        public final long closeCount;
+        public final long dismissCount;
+
+        Snapshot(Histogram touchLatency, Histogram gestureDuration, Histogram settleDuration,
+                 long dragFrames, long dragDroppedFrames, long settleFrames, long settleDroppedFrames,
+                 long openCount, long closeCount, long dismissCount) {
+            this.touchLatency = touchLatency;
+            this.gestureDuration = gestureDuration;
+            this.settleDuration = settleDuration;
+            this.dragFrames = dragFrames;
+            this.dragDroppedFrames = dragDroppedFrames;
+            this.settleFrames = settleFrames;
+            this.settleDroppedFrames = settleDroppedFrames;
+            this.openCount = openCount;
+            this.closeCount = closeCount;
+            this.dismissCount = dismissCount;
+        }
+
+        @Override
+        public String toString() {
+            return "touchLatency=" + touchLatency
+                    + ", gestureDuration=" + gestureDuration
+                    + ", settleDuration=" + settleDuration
+                    + ", dragFrames=" + dragFrames + " (" + dragDroppedFrames + " dropped)"
+                    + ", settleFrames=" + settleFrames + " (" + settleDroppedFrames + " dropped)"
+                    + ", opened=" + openCount + ", closed=" + closeCount + ", dismissed=" + dismissCount;
+        }
+    }
+
+    /**
+     * Histogram of millisecond values in power of two buckets: [0, 1], (1, 2], (2, 4] ... (1024, 2048], over 2048
+     */
+    public static class Histogram {
+        static final int BUCKET_COUNT = 13;
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Histogram(long[] buckets, long sum, long max) {
+            this.buckets = buckets.clone();
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        static int bucketOf(long millis) {
+            if (millis <= 1) {
+                return 0;
+            }
+            int bucket = 64 - Long.numberOfLeadingZeros(millis - 1);
+            return Math.min(bucket, BUCKET_COUNT - 1);
+        }
+
+        /**
+         * @param bucket bucket index
+         * @return upper bound of the bucket in milliseconds, Long.MAX_VALUE for the last one
+         */
+        public static long getBucketUpperBound(int bucket) {
+            return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+        }
+
+        /**
+         * @return a copy of the bucket counts
+         */
+        public long[] getBucketCounts() {
+            return buckets.clone();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public float getMean() {
+            return count == 0 ? 0 : (float) sum / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return upper bound of the bucket containing the percentile, capped at the maximum value
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(getBucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", mean=" + getMean() + ", p50=" + getPercentile(50)
+                    + ", p90=" + getPercentile(90) + ", p99=" + getPercentile(99) + ", max=" + max + "}";
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Compact binary form of the opened rows, saved with the instance state of the list.
+ *
+ * Opened rows are written in ascending order as runs of consecutive positions or ids: the gap to
+ * the previous run and the run length, as varints. Directions follow as alternating run lengths of
+ * left and right opened rows. A whole list opened in one direction takes a few bytes whatever its size.
+ * When the encoding doesn't fit the size bound, only the longest prefix of the opened rows that fits is
+ * saved: the rows with the highest positions or ids are restored closed.
+ *
+ * Decoded rows stay in their run form, so a few bytes describing millions of rows decode into a few
+ * arrays as long as the number of runs, never more than the encoded size.
+ */
+final class SwipeStateCodec {
+
+    static final int KIND_POSITIONS = 1;
+    static final int KIND_IDS = 2;
+
+    /**
+     * Default bound of the encoded size, far below the Binder transaction limit
+     */
+    static final int MAX_BYTES = 32 * 1024;
+
+    final int kind;
+    final long count;
+    final byte[] bytes;
+
+    // First value of each run, and index of that value among the opened rows
+    private final long[] runStarts;
+    private final long[] runIndexes;
+    // Index after each direction run, even runs are opened toward the left
+    private final long[] directionEnds;
+
+    private SwipeStateCodec(int kind, long count, byte[] bytes, long[] runStarts, long[] runIndexes,
+                            long[] directionEnds) {
+        this.kind = kind;
+        this.count = count;
+        this.bytes = bytes;
+        this.runStarts = runStarts;
+        this.runIndexes = runIndexes;
+        this.directionEnds = directionEnds;
+    }
+
+    /**
+     * @param kind     KIND_POSITIONS or KIND_IDS
+     * @param values   opened positions or ids, in strictly ascending order
+     * @param rights   true for the rows opened toward the right
+     * @param count    number of opened rows
+     * @param maxBytes size bound of the result
+     * @return encoded rows, the longest prefix of them that fits maxBytes
+     */
+    static byte[] encode(int kind, long[] values, boolean[] rights, int count, int maxBytes) {
+        byte[] bytes = encodePrefix(kind, values, rights, count);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        // A longer prefix never takes fewer bytes, so the longest one that fits is searched for
+        byte[] fitting = encodePrefix(kind, values, rights, 0);
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            byte[] prefix = encodePrefix(kind, values, rights, middle);
+            if (prefix.length <= maxBytes) {
+                low = middle;
+                fitting = prefix;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return fitting;
+    }
+
+    private static byte[] encodePrefix(int kind, long[] values, boolean[] rights, int count) {
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        int runCount = 0;
+        long previousEnd = 0;
+        for (int i = 0; i < count; ) {
+            int start = i;
+            while (i + 1 < count && values[i + 1] == values[i] + 1) {
+                i++;
+            }
+            writeVarint(runs, runCount == 0 ? zigzag(values[start]) : values[start] - previousEnd - 1);
+            writeVarint(runs, i - start);
+            previousEnd = values[i];
+            runCount++;
+            i++;
+        }
+
+        ByteArrayOutputStream directions = new ByteArrayOutputStream();
+        int directionRunCount = 0;
+        boolean right = false;
+        for (int i = 0; i < count; ) {
+            int start = i;
+            while (i < count && rights[i] == right) {
+                i++;
+            }
+            writeVarint(directions, i - start);
+            directionRunCount++;
+            right = !right;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(runs.size() + directions.size() + 16);
+        out.write(kind);
+        writeVarint(out, count);
+        writeVarint(out, runCount);
+        out.write(runs.toByteArray(), 0, runs.size());
+        writeVarint(out, directionRunCount);
+        out.write(directions.toByteArray(), 0, directions.size());
+        return out.toByteArray();
+    }
+
+    /**
+     * @param bytes rows written by {@link #encode(int, long[], boolean[], int, int)}
+     * @return decoded rows
+     * @throws IOException if the bytes are not valid
+     */
+    static SwipeStateCodec decode(byte[] bytes) throws IOException {
+        InputStream in = new ByteArrayInputStream(bytes);
+        int kind = readByte(in);
+        if (kind != KIND_POSITIONS && kind != KIND_IDS) {
+            throw new IOException("Invalid swipe state kind " + kind);
+        }
+        long count = readVarint(in);
+        if (count < 0) {
+            throw new IOException("Invalid swipe state size " + count);
+        }
+
+        // Every run takes at least 2 bytes, and every direction run 1 byte
+        long runCount = readVarint(in);
+        if (runCount < 0 || runCount > bytes.length / 2) {
+            throw new IOException("Invalid swipe state runs " + runCount);
+        }
+        long[] runStarts = new long[(int) runCount];
+        long[] runIndexes = new long[(int) runCount];
+        long index = 0;
+        long previousEnd = 0;
+        for (int run = 0; run < runCount; run++) {
+            long start;
+            if (run == 0) {
+                start = unzigzag(readVarint(in));
+            } else {
+                long gap = readVarint(in);
+                start = previousEnd + 1 + gap;
+                // Runs are ascending, a wrapped start is lower than the previous run
+                if (gap < 0 || start <= previousEnd) {
+                    throw new IOException("Invalid swipe state run");
+                }
+            }
+            long length = readVarint(in) + 1;
+            long end = start + length - 1;
+            if (length < 1 || length > count - index || end < start) {
+                throw new IOException("Invalid swipe state run");
+            }
+            runStarts[run] = start;
+            runIndexes[run] = index;
+            index += length;
+            previousEnd = end;
+        }
+        if (index != count) {
+            throw new IOException("Truncated swipe state");
+        }
+
+        long directionRunCount = readVarint(in);
+        if (directionRunCount < 0 || directionRunCount > bytes.length) {
+            throw new IOException("Invalid swipe state directions " + directionRunCount);
+        }
+        long[] directionEnds = new long[(int) directionRunCount];
+        index = 0;
+        for (int run = 0; run < directionRunCount; run++) {
+            long length = readVarint(in);
+            if (length < 0 || length > count - index) {
+                throw new IOException("Invalid swipe state direction");
+            }
+            index += length;
+            directionEnds[run] = index;
+        }
+        if (index != count) {
+            throw new IOException("Truncated swipe state");
+        }
+        return new SwipeStateCodec(kind, count, bytes, runStarts, runIndexes, directionEnds);
+    }
+
+    /**
+     * @param index index of an opened row, between 0 and count
+     * @return true if the row is opened toward the right
+     */
+    boolean isOpenedRightAt(long index) {
+        int low = 0;
+        int high = directionEnds.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (directionEnds[middle] > index) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return (low & 1) == 1;
+    }
+
+    /**
+     * @param value position or id
+     * @return index of the value among the opened rows, -1 if it is not opened
+     */
+    long indexOf(long value) {
+        int low = 0;
+        int high = runStarts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (runStarts[middle] > value) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        // high is the last run starting at or before the value
+        if (high < 0) {
+            return -1;
+        }
+        long runEnd = high + 1 < runIndexes.length ? runIndexes[high + 1] : count;
+        long offset = value - runStarts[high];
+        return offset < runEnd - runIndexes[high] ? runIndexes[high] + offset : -1;
+    }
+
+    /**
+     * Opens the decoded positions that are between 0 and size in a store. Runs past size are skipped,
+     * so the work is bounded by the list size whatever the decoded count.
+     *
+     * @param store positions store
+     * @param size  number of rows of the list
+     */
+    void openPositions(SwipeStateStore store, int size) {
+        int direction = 0;
+        for (int run = 0; run < runStarts.length; run++) {
+            long runEnd = run + 1 < runIndexes.length ? runIndexes[run + 1] : count;
+            long first = Math.max(runStarts[run], 0);
+            long last = Math.min(runStarts[run] + (runEnd - runIndexes[run]) - 1, size - 1);
+            for (long position = first; position <= last; position++) {
+                long index = runIndexes[run] + position - runStarts[run];
+                while (directionEnds[direction] <= index) {
+                    direction++;
+                }
+                store.open((int) position, (direction & 1) == 1);
+            }
+        }
+    }
+
+    /**
+     * Opens every decoded id in a store
+     *
+     * @param store ids store
+     */
+    void openIds(SwipeIdStateStore store) {
+        int direction = 0;
+        for (int run = 0; run < runStarts.length; run++) {
+            long runEnd = run + 1 < runIndexes.length ? runIndexes[run + 1] : count;
+            for (long index = runIndexes[run]; index < runEnd; index++) {
+                while (directionEnds[direction] <= index) {
+                    direction++;
+                }
+                store.open(runStarts[run] + index - runIndexes[run], (direction & 1) == 1);
+            }
+        }
+    }
+
+    // Varint helpers, shared with SwipeTouchTrace
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new IOException("Truncated swipe state");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.util.Arrays;
+
+/**
+ * Per-row swipe state (opened / opened to the right) indexed by list position.
+ *
+ * While only a few rows are open the state is kept as a sorted array of open positions (sparse mode).
+ * Once enough rows are open it switches to two primitive bitsets (dense mode), which cost two bits per row.
+ * Shared with the RecyclerView support.
+ */
+public class SwipeStateStore {
+
+    /**
+     * Sparse mode never switches to dense below this number of open rows
+     */
+    private static final int MIN_DENSE_OPEN_COUNT = 32;
+
+    private int size;
+    private int openCount;
+
+    private boolean dense;
+
+    // Dense mode
+    private long[] openBits;
+    private long[] rightBits;
+
+    // Sparse mode
+    private int[] openPositions = new int[8];
+    private boolean[] openRight = new boolean[8];
+
+    /**
+     * @return number of rows tracked by this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of opened rows
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * @return true if the store currently uses bitsets
+     */
+    boolean isDense() {
+        return dense;
+    }
+
+    /**
+     * Grows the store so it tracks at least size rows. New rows are closed.
+     *
+     * @param size number of rows
+     */
+    public void ensureSize(int size) {
+        if (size <= this.size) {
+            return;
+        }
+        this.size = size;
+        if (dense) {
+            int words = wordCount(size);
+            if (words > openBits.length) {
+                int newLength = Math.max(words, openBits.length + (openBits.length >> 1));
+                openBits = Arrays.copyOf(openBits, newLength);
+                rightBits = Arrays.copyOf(rightBits, newLength);
+            }
+        }
+    }
+
+    /**
+     * Grows or shrinks the store so it tracks exactly size rows. Rows dropped by a shrink are closed,
+     * and memory kept for more rows than needed is released.
+     *
+     * @param size number of rows
+     */
+    public void setSize(int size) {
+        if (size < 0) {
+            size = 0;
+        }
+        if (size >= this.size) {
+            ensureSize(size);
+            return;
+        }
+        this.size = size;
+        if (dense) {
+            int words = wordCount(size);
+            if (words > 0 && (size & 63) != 0) {
+                openBits[words - 1] &= (1L << size) - 1;
+                rightBits[words - 1] &= (1L << size) - 1;
+            }
+            if (openBits.length > words << 1) {
+                openBits = Arrays.copyOf(openBits, words);
+                rightBits = Arrays.copyOf(rightBits, words);
+            } else {
+                Arrays.fill(openBits, words, openBits.length, 0L);
+                Arrays.fill(rightBits, words, rightBits.length, 0L);
+            }
+            openCount = 0;
+            for (int i = 0; i < words; i++) {
+                openCount += Long.bitCount(openBits[i]);
+            }
+            if (openCount < sparseThreshold()) {
+                toSparse();
+            }
+            return;
+        }
+        openCount = firstSparseIndex(size);
+        int capacity = sparseCapacity(openCount);
+        if (openPositions.length > capacity << 1) {
+            openPositions = Arrays.copyOf(openPositions, capacity);
+            openRight = Arrays.copyOf(openRight, capacity);
+        }
+    }
+
+    /**
+     * Closes every row
+     */
+    public void clear() {
+        if (dense) {
+            Arrays.fill(openBits, 0L);
+            Arrays.fill(rightBits, 0L);
+        }
+        openCount = 0;
+        toSparse();
+    }
+
+    /**
+     * @param position list position
+     * @return true if the row is opened
+     */
+    public boolean isOpened(int position) {
+        if (position < 0 || position >= size) {
+            return false;
+        }
+        if (dense) {
+            return (openBits[position >> 6] & (1L << position)) != 0;
+        }
+        return Arrays.binarySearch(openPositions, 0, openCount, position) >= 0;
+    }
+
+    /**
+     * Finds the first opened row at or after a position, so opened rows can be visited
+     * without looking at the closed ones
+     *
+     * @param position list position to start from
+     * @return position of the next opened row, or -1 if there is none
+     */
+    public int nextOpened(int position) {
+        if (position < 0) {
+            position = 0;
+        }
+        if (position >= size) {
+            return -1;
+        }
+        if (dense) {
+            int word = position >> 6;
+            int words = wordCount(size);
+            long bits = openBits[word] & (-1L << position);
+            while (bits == 0) {
+                if (++word >= words) {
+                    return -1;
+                }
+                bits = openBits[word];
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        int index = Arrays.binarySearch(openPositions, 0, openCount, position);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < openCount ? openPositions[index] : -1;
+    }
+
+    /**
+     * @param position list position
+     * @return true if the row is opened toward the right. Closed rows return false
+     */
+    public boolean isOpenedRight(int position) {
+        if (position < 0 || position >= size) {
+            return false;
+        }
+        if (dense) {
+            return (rightBits[position >> 6] & (1L << position)) != 0;
+        }
+        int index = Arrays.binarySearch(openPositions, 0, openCount, position);
+        return index >= 0 && openRight[index];
+    }
+
+    /**
+     * Marks a row as opened
+     *
+     * @param position list position
+     * @param right    true if opened toward the right
+     */
+    public void open(int position, boolean right) {
+        if (position < 0) {
+            return;
+        }
+        ensureSize(position + 1);
+        if (dense) {
+            int word = position >> 6;
+            long mask = 1L << position;
+            if ((openBits[word] & mask) == 0) {
+                openBits[word] |= mask;
+                openCount++;
+            }
+            if (right) {
+                rightBits[word] |= mask;
+            } else {
+                rightBits[word] &= ~mask;
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(openPositions, 0, openCount, position);
+        if (index >= 0) {
+            openRight[index] = right;
+            return;
+        }
+        index = -index - 1;
+        if (openCount == openPositions.length) {
+            openPositions = Arrays.copyOf(openPositions, openCount << 1);
+            openRight = Arrays.copyOf(openRight, openCount << 1);
+        }
+        System.arraycopy(openPositions, index, openPositions, index + 1, openCount - index);
+        System.arraycopy(openRight, index, openRight, index + 1, openCount - index);
+        openPositions[index] = position;
+        openRight[index] = right;
+        openCount++;
+        if (openCount > denseThreshold()) {
+            toDense();
+        }
+    }
+
+    /**
+     * Marks a row as closed
+     *
+     * @param position list position
+     */
+    public void close(int position) {
+        if (position < 0 || position >= size) {
+            return;
+        }
+        if (dense) {
+            int word = position >> 6;
+            long mask = 1L << position;
+            if ((openBits[word] & mask) != 0) {
+                openBits[word] &= ~mask;
+                rightBits[word] &= ~mask;
+                openCount--;
+                if (openCount < sparseThreshold()) {
+                    toSparse();
+                }
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(openPositions, 0, openCount, position);
+        if (index >= 0) {
+            removeSparseAt(index);
+        }
+    }
+
+    /**
+     * Removes a row and shifts every following row one position up
+     *
+     * @param position list position
+     */
+    public void remove(int position) {
+        removeRange(position, 1);
+    }
+
+    /**
+     * Inserts closed rows and shifts every following row down. Only the opened rows after the
+     * insert are visited, or the bitset words after it in dense mode.
+     *
+     * @param position list position of the first inserted row
+     * @param count    number of inserted rows
+     */
+    public void insert(int position, int count) {
+        if (position < 0 || count <= 0) {
+            return;
+        }
+        if (position >= size) {
+            ensureSize(position + count);
+            return;
+        }
+        int oldSize = size;
+        ensureSize(size + count);
+        if (dense) {
+            insertBits(openBits, position, count, oldSize + count);
+            insertBits(rightBits, position, count, oldSize + count);
+            return;
+        }
+        int index = firstSparseIndex(position);
+        for (int i = index; i < openCount; i++) {
+            openPositions[i] += count;
+        }
+    }
+
+    /**
+     * Removes rows and shifts every following row up. Only the opened rows from the first removed one
+     * are visited, or the bitset words from it in dense mode.
+     *
+     * @param position list position of the first removed row
+     * @param count    number of removed rows
+     */
+    public void removeRange(int position, int count) {
+        if (position < 0 || position >= size || count <= 0) {
+            return;
+        }
+        count = Math.min(count, size - position);
+        if (dense) {
+            for (int word = position >> 6; word <= (position + count - 1) >> 6; word++) {
+                openCount -= Long.bitCount(openBits[word] & rangeMask(word, position, position + count));
+            }
+            removeBits(openBits, position, count, size);
+            removeBits(rightBits, position, count, size);
+            size -= count;
+            if (openCount < sparseThreshold()) {
+                toSparse();
+            }
+            return;
+        }
+        int from = firstSparseIndex(position);
+        int to = firstSparseIndex(position + count);
+        if (to > from) {
+            System.arraycopy(openPositions, to, openPositions, from, openCount - to);
+            System.arraycopy(openRight, to, openRight, from, openCount - to);
+            openCount -= to - from;
+        }
+        for (int i = from; i < openCount; i++) {
+            openPositions[i] -= count;
+        }
+        size -= count;
+    }
+
+    /**
+     * Moves rows to another position, keeping their state. The rows in between shift to fill the gap.
+     *
+     * @param from  list position of the first moved row
+     * @param to    list position of the first moved row once moved
+     * @param count number of moved rows
+     */
+    public void move(int from, int to, int count) {
+        if (from < 0 || to < 0 || from == to || count <= 0 || from >= size) {
+            return;
+        }
+        count = Math.min(count, size - from);
+        to = Math.min(to, size - count);
+        // Only the opened rows among the moved ones need to be carried over
+        int moved = 0;
+        int[] offsets = new int[Math.min(count, openCount)];
+        boolean[] rights = new boolean[offsets.length];
+        for (int position = nextOpened(from); position >= 0 && position < from + count;
+             position = nextOpened(position + 1)) {
+            offsets[moved] = position - from;
+            rights[moved++] = isOpenedRight(position);
+        }
+        removeRange(from, count);
+        insert(to, count);
+        for (int i = 0; i < moved; i++) {
+            open(to + offsets[i], rights[i]);
+        }
+    }
+
+    /**
+     * @return index in the sparse arrays of the first opened row at or after position
+     */
+    private int firstSparseIndex(int position) {
+        int index = Arrays.binarySearch(openPositions, 0, openCount, position);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void removeSparseAt(int index) {
+        System.arraycopy(openPositions, index + 1, openPositions, index, openCount - index - 1);
+        System.arraycopy(openRight, index + 1, openRight, index, openCount - index - 1);
+        openCount--;
+    }
+
+    private int denseThreshold() {
+        return Math.max(MIN_DENSE_OPEN_COUNT, size >> 4);
+    }
+
+    private int sparseThreshold() {
+        return Math.max(MIN_DENSE_OPEN_COUNT, size >> 6) >> 1;
+    }
+
+    private void toDense() {
+        int words = wordCount(size);
+        openBits = new long[words];
+        rightBits = new long[words];
+        for (int i = 0; i < openCount; i++) {
+            int position = openPositions[i];
+            openBits[position >> 6] |= 1L << position;
+            if (openRight[i]) {
+                rightBits[position >> 6] |= 1L << position;
+            }
+        }
+        openPositions = new int[8];
+        openRight = new boolean[8];
+        dense = true;
+    }
+
+    private void toSparse() {
+        if (!dense) {
+            return;
+        }
+        openPositions = new int[sparseCapacity(openCount)];
+        openRight = new boolean[openPositions.length];
+        int index = 0;
+        for (int word = 0; word < openBits.length; word++) {
+            long bits = openBits[word];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                int position = (word << 6) + bit;
+                openPositions[index] = position;
+                openRight[index] = (rightBits[word] & (1L << bit)) != 0;
+                index++;
+                bits &= bits - 1;
+            }
+        }
+        openBits = null;
+        rightBits = null;
+        dense = false;
+    }
+
+    /**
+     * Inserts count cleared bits at position, moving the bits above it up. Words are rewritten from the
+     * top so every source word is read before it is overwritten.
+     *
+     * @param size number of bits once inserted, bits must be long enough
+     */
+    private static void insertBits(long[] bits, int position, int count, int size) {
+        for (int word = wordCount(size) - 1; word >= position >> 6; word--) {
+            long shifted = bitsAt(bits, ((long) word << 6) - count);
+            long keep = rangeMask(word, 0, position);
+            long cleared = rangeMask(word, position, (long) position + count);
+            bits[word] = (bits[word] & keep) | (shifted & ~keep & ~cleared);
+        }
+    }
+
+    /**
+     * Removes count bits at position, moving the bits above them down. Bits at or above size
+     * must be clear, so the top of the bitset is left clear.
+     *
+     * @param size number of bits before the removal
+     */
+    private static void removeBits(long[] bits, int position, int count, int size) {
+        int words = wordCount(size);
+        for (int word = position >> 6; word < words; word++) {
+            long shifted = bitsAt(bits, ((long) word << 6) + count);
+            long keep = rangeMask(word, 0, position);
+            bits[word] = (bits[word] & keep) | (shifted & ~keep);
+        }
+    }
+
+    /**
+     * @return the 64 bits starting at offset, bits outside the array read as clear
+     */
+    private static long bitsAt(long[] bits, long offset) {
+        int word = (int) (offset >> 6);
+        int shift = (int) (offset & 63);
+        long low = word >= 0 && word < bits.length ? bits[word] : 0L;
+        if (shift == 0) {
+            return low;
+        }
+        long high = word + 1 >= 0 && word + 1 < bits.length ? bits[word + 1] : 0L;
+        return (low >>> shift) | (high << (64 - shift));
+    }
+
+    /**
+     * @return mask of the bits of word whose position is in [from, to)
+     */
+    private static long rangeMask(int word, long from, long to) {
+        long start = Math.max(from - ((long) word << 6), 0);
+        long end = Math.min(to - ((long) word << 6), 64);
+        if (end <= start) {
+            return 0L;
+        }
+        long mask = end - start == 64 ? -1L : (1L << (end - start)) - 1;
+        return mask << start;
+    }
+
+    private static int sparseCapacity(int openCount) {
+        return Math.max(8, Integer.highestOneBit(Math.max(1, openCount)) << 1);
+    }
+
+    private static int wordCount(int size) {
+        return (size + 63) >> 6;
+    }
+}
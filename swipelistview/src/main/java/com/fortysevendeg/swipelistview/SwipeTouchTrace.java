@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Recorded touch events of a SwipeListView, to reproduce swipes offline.
+ *
+ * Record with {@link SwipeListView#setTouchTraceRecorder(SwipeTouchTrace)}, save with
+ * {@link #writeTo(OutputStream)} and replay deterministically into a {@link SwipeGestureEngine} on
+ * any JVM with {@link #replay(SwipeGestureEngine)}, or into a list with
+ * {@link SwipeListView#replayTouchTrace(SwipeTouchTrace)}.
+ *
+ * Moves and ups keep the velocity the list measured for them with VelocityTracker, which the engine
+ * decides flings with, so a replay on the JVM takes the same decisions as the device did.
+ *
+ * Coordinates are kept in 1/16 pixel and velocities in pixels per second. The binary format is the
+ * "SWTR" magic, a version byte and the event count as a varint, then for every event: the action byte,
+ * the time since the previous event as a varint, and x and y as zigzag varint deltas from the previous
+ * event. Down events add the raw to list offset and the swiped row position, moves and ups add the x and
+ * y velocities, all as zigzag varints. A typical move takes about 9 bytes.
+ */
+public class SwipeTouchTrace {
+
+    public static final int ACTION_DOWN = SwipeGestureEngine.TOUCH_DOWN;
+    public static final int ACTION_UP = SwipeGestureEngine.TOUCH_UP;
+    public static final int ACTION_MOVE = SwipeGestureEngine.TOUCH_MOVE;
+    public static final int ACTION_CANCEL = SwipeGestureEngine.TOUCH_CANCEL;
+
+    /**
+     * Sample batched into the next move event
+     */
+    public static final int ACTION_HISTORY = 4;
+
+    private static final int MAGIC = 0x53575452; // "SWTR"
+    private static final int VERSION = 2;
+    private static final float SCALE = 16f;
+
+    private int count;
+    private byte[] actions = new byte[64];
+    private long[] times = new long[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] offsetXs = new int[64];
+    private int[] offsetYs = new int[64];
+    private int[] positions = new int[64];
+    private int[] velocityXs = new int[64];
+    private int[] velocityYs = new int[64];
+
+    /**
+     * Adds an event
+     *
+     * @param action  ACTION_DOWN, ACTION_UP, ACTION_MOVE, ACTION_CANCEL or ACTION_HISTORY
+     * @param time    event time in milliseconds
+     * @param rawX    raw x
+     * @param rawY    raw y
+     * @param offsetX raw x minus x in list coordinates, only kept for down events
+     * @param offsetY raw y minus y in list coordinates, only kept for down events
+     */
+    public void add(int action, long time, float rawX, float rawY, float offsetX, float offsetY) {
+        if (count == actions.length) {
+            int capacity = count << 1;
+            actions = Arrays.copyOf(actions, capacity);
+            times = Arrays.copyOf(times, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            offsetXs = Arrays.copyOf(offsetXs, capacity);
+            offsetYs = Arrays.copyOf(offsetYs, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            velocityXs = Arrays.copyOf(velocityXs, capacity);
+            velocityYs = Arrays.copyOf(velocityYs, capacity);
+        }
+        boolean down = action == ACTION_DOWN;
+        actions[count] = (byte) action;
+        times[count] = time;
+        xs[count] = Math.round(rawX * SCALE);
+        ys[count] = Math.round(rawY * SCALE);
+        offsetXs[count] = down ? Math.round(offsetX * SCALE) : 0;
+        offsetYs[count] = down ? Math.round(offsetY * SCALE) : 0;
+        positions[count] = SwipeGestureEngine.INVALID_POSITION;
+        velocityXs[count] = 0;
+        velocityYs[count] = 0;
+        count++;
+    }
+
+    /**
+     * Sets the row that the last down event started to swipe
+     *
+     * @param position row position or SwipeGestureEngine.INVALID_POSITION
+     */
+    public void setLastDownPosition(int position) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (actions[i] == ACTION_DOWN) {
+                positions[i] = position;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the velocity measured for the last event, a move or an up
+     *
+     * @param velocityX horizontal velocity in pixels per second
+     * @param velocityY vertical velocity in pixels per second
+     */
+    public void setLastVelocity(float velocityX, float velocityY) {
+        if (count > 0 && hasVelocity(actions[count - 1])) {
+            velocityXs[count - 1] = Math.round(velocityX);
+            velocityYs[count - 1] = Math.round(velocityY);
+        }
+    }
+
+    /**
+     * Removes every event
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return number of events, batched samples included
+     */
+    public int size() {
+        return count;
+    }
+
+    public int getAction(int index) {
+        return actions[index];
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public float getRawX(int index) {
+        return xs[index] / SCALE;
+    }
+
+    public float getRawY(int index) {
+        return ys[index] / SCALE;
+    }
+
+    public float getOffsetX(int index) {
+        return offsetXs[index] / SCALE;
+    }
+
+    public float getOffsetY(int index) {
+        return offsetYs[index] / SCALE;
+    }
+
+    /**
+     * @param index event index
+     * @return swiped row of a down event, SwipeGestureEngine.INVALID_POSITION otherwise
+     */
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @param index event index
+     * @return horizontal velocity of a move or up event in pixels per second, 0 otherwise
+     */
+    public float getVelocityX(int index) {
+        return velocityXs[index];
+    }
+
+    /**
+     * @param index event index
+     * @return vertical velocity of a move or up event in pixels per second, 0 otherwise
+     */
+    public float getVelocityY(int index) {
+        return velocityYs[index];
+    }
+
+    /**
+     * Feeds every event to an engine, the same way SwipeListViewTouchListener does
+     *
+     * @param engine gesture engine
+     */
+    public void replay(SwipeGestureEngine engine) {
+        for (int i = 0; i < count; i++) {
+            int action = actions[i];
+            if (action == ACTION_HISTORY) {
+                engine.addHistoricalSample(times[i], getRawX(i), getRawY(i));
+            } else if (action == ACTION_DOWN && positions[i] != SwipeGestureEngine.INVALID_POSITION) {
+                engine.down(times[i], getRawX(i), getRawY(i), positions[i]);
+            } else {
+                engine.onTouchEvent(times[i], getRawX(i), getRawY(i), action, velocityXs[i], velocityYs[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the trace in its binary format
+     *
+     * @param out stream, not closed
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + count * 4);
+        bytes.write(MAGIC >>> 24);
+        bytes.write(MAGIC >>> 16);
+        bytes.write(MAGIC >>> 8);
+        bytes.write(MAGIC);
+        bytes.write(VERSION);
+        SwipeStateCodec.writeVarint(bytes, count);
+        long lastTime = 0;
+        int lastX = 0;
+        int lastY = 0;
+        for (int i = 0; i < count; i++) {
+            bytes.write(actions[i]);
+            SwipeStateCodec.writeVarint(bytes, i == 0 ? times[i] : times[i] - lastTime);
+            SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(xs[i] - lastX));
+            SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(ys[i] - lastY));
+            if (actions[i] == ACTION_DOWN) {
+                SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(offsetXs[i]));
+                SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(offsetYs[i]));
+                SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(positions[i]));
+            } else if (hasVelocity(actions[i])) {
+                SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(velocityXs[i]));
+                SwipeStateCodec.writeVarint(bytes, SwipeStateCodec.zigzag(velocityYs[i]));
+            }
+            lastTime = times[i];
+            lastX = xs[i];
+            lastY = ys[i];
+        }
+        bytes.writeTo(out);
+    }
+
+    /**
+     * @return the trace in its binary format
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a trace written by {@link #writeTo(OutputStream)}
+     *
+     * @param in stream, not closed
+     * @return trace
+     * @throws IOException if the stream fails or doesn't contain a trace
+     */
+    public static SwipeTouchTrace read(InputStream in) throws IOException {
+        int magic = (readByte(in) << 24) | (readByte(in) << 16) | (readByte(in) << 8) | readByte(in);
+        if (magic != MAGIC) {
+            throw new IOException("Not a touch trace");
+        }
+        int version = readByte(in);
+        if (version != VERSION) {
+            throw new IOException("Unsupported touch trace version " + version);
+        }
+        long size = SwipeStateCodec.readVarint(in);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid touch trace size " + size);
+        }
+        SwipeTouchTrace trace = new SwipeTouchTrace();
+        long time = 0;
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < size; i++) {
+            int action = readByte(in);
+            if (action > ACTION_HISTORY) {
+                throw new IOException("Invalid touch trace action " + action);
+            }
+            time = i == 0 ? SwipeStateCodec.readVarint(in) : time + SwipeStateCodec.readVarint(in);
+            x += (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+            y += (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+            trace.add(action, time, x / SCALE, y / SCALE, 0, 0);
+            if (action == ACTION_DOWN) {
+                trace.offsetXs[i] = (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+                trace.offsetYs[i] = (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+                trace.positions[i] = (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+            } else if (hasVelocity(action)) {
+                trace.velocityXs[i] = (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+                trace.velocityYs[i] = (int) SwipeStateCodec.unzigzag(SwipeStateCodec.readVarint(in));
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * @param bytes trace written by {@link #toByteArray()}
+     * @return trace
+     * @throws IOException if the bytes don't contain a trace
+     */
+    public static SwipeTouchTrace fromByteArray(byte[] bytes) throws IOException {
+        return read(new ByteArrayInputStream(bytes));
+    }
+
+    private static boolean hasVelocity(int action) {
+        return action == ACTION_MOVE || action == ACTION_UP;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new IOException("Truncated touch trace");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+import android.view.View;
+import android.view.ViewStub;
+
+/**
+ * Front and back views of a row, resolved once and kept in the row view's tag.
+ * The back view may be a ViewStub until the row is first swiped. Shared with the RecyclerView support.
+ */
+public class SwipeViewHolder {
+
+    public final View frontView;
+    View backView;
+
+    private SwipeViewHolder(View frontView, View backView) {
+        this.frontView = frontView;
+        this.backView = backView;
+    }
+
+    /**
+     * Returns the holder of a row, looking up its front and back views the first time
+     *
+     * @param row            row view
+     * @param swipeFrontView front view identifier
+     * @param swipeBackView  back view identifier
+     * @return SwipeViewHolder
+     */
+    public static SwipeViewHolder get(View row, int swipeFrontView, int swipeBackView) {
+        SwipeViewHolder holder = (SwipeViewHolder) row.getTag(R.id.swipelistview__view_holder);
+        if (holder == null) {
+            holder = new SwipeViewHolder(row.findViewById(swipeFrontView), row.findViewById(swipeBackView));
+            row.setTag(R.id.swipelistview__view_holder, holder);
+        }
+        return holder;
+    }
+
+    /**
+     * Inflates the back view if it is still a ViewStub. The inflated view stays in the row,
+     * so a recycled row never inflates it again.
+     *
+     * @param row           row view
+     * @param swipeBackView back view identifier, given to the inflated view if it has no id
+     * @return true if the back view was inflated by this call
+     */
+    public boolean inflateBackView(View row, int swipeBackView) {
+        if (!(backView instanceof ViewStub)) {
+            return false;
+        }
+        ViewStub stub = (ViewStub) backView;
+        if (stub.getParent() == null) {
+            // Inflated by someone else, the stub is no longer in the row
+            backView = row.findViewById(swipeBackView);
+            return false;
+        }
+        backView = stub.inflate();
+        if (backView.getId() == View.NO_ID) {
+            backView.setId(swipeBackView);
+        }
+        return true;
+    }
+}
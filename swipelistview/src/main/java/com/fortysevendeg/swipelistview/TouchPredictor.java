@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview;
+
+/**
+ * Keeps the latest horizontal touch samples of a gesture and extrapolates the finger position
+ * a short time ahead with a least squares linear or quadratic fit.
+ *
+ * It also measures itself: every prediction is compared with the real position once the
+ * finger gets there, together with the error of just using the last known sample.
+ */
+class TouchPredictor {
+
+    static final int NONE = 0;
+    static final int LINEAR = 1;
+    static final int QUADRATIC = 2;
+
+    private static final int CAPACITY = 16;
+
+    /**
+     * Only samples this recent (ms) relative to the newest one are used for the fit
+     */
+    private static final long FIT_WINDOW = 50;
+
+    private final long[] times = new long[CAPACITY];
+    private final float[] positions = new float[CAPACITY];
+    private int head;
+    private int count;
+
+    private long predictionTime = -1;
+    private float predictedPosition;
+    private float unpredictedPosition;
+
+    private double predictionErrorSum;
+    private double unpredictedErrorSum;
+    private int errorCount;
+
+    /**
+     * Forgets the samples of the previous gesture. Error statistics are kept.
+     */
+    void reset() {
+        head = 0;
+        count = 0;
+        predictionTime = -1;
+    }
+
+    /**
+     * Adds a sample. Samples must be added in time order.
+     *
+     * @param time     event time in milliseconds
+     * @param position horizontal position
+     */
+    void addSample(long time, float position) {
+        if (count > 0) {
+            long lastTime = newestTime();
+            float lastPosition = newestPosition();
+            if (predictionTime >= 0 && time >= predictionTime && time > lastTime) {
+                float ratio = (float) (predictionTime - lastTime) / (time - lastTime);
+                float actual = lastPosition + (position - lastPosition) * Math.max(0f, ratio);
+                predictionErrorSum += Math.abs(predictedPosition - actual);
+                unpredictedErrorSum += Math.abs(unpredictedPosition - actual);
+                errorCount++;
+                predictionTime = -1;
+            }
+        }
+        head = (head + 1) % CAPACITY;
+        times[head] = time;
+        positions[head] = position;
+        if (count < CAPACITY) {
+            count++;
+        }
+    }
+
+    /**
+     * @return true if there is at least one sample
+     */
+    boolean hasSamples() {
+        return count > 0;
+    }
+
+    /**
+     * @return position of the newest sample
+     */
+    float newestPosition() {
+        return positions[head];
+    }
+
+    private long newestTime() {
+        return times[head];
+    }
+
+    /**
+     * Extrapolates the position at a given time
+     *
+     * @param time time in milliseconds, usually a little after the newest sample
+     * @param mode NONE, LINEAR or QUADRATIC
+     * @return predicted position, or the newest position when there is not enough data
+     */
+    float predict(long time, int mode) {
+        if (count == 0) {
+            return 0;
+        }
+        float last = newestPosition();
+        if (mode == NONE || count < 2 || time <= newestTime()) {
+            return last;
+        }
+        float predicted = fit(time - newestTime(), mode == QUADRATIC && count >= 3);
+        predictionTime = time;
+        predictedPosition = predicted;
+        unpredictedPosition = last;
+        return predicted;
+    }
+
+    /**
+     * Least squares fit of position against time, relative to the newest sample
+     *
+     * @param dt        time after the newest sample
+     * @param quadratic true for a second degree fit
+     * @return fitted position at dt
+     */
+    private float fit(long dt, boolean quadratic) {
+        long newestTime = newestTime();
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double sy = 0, sty = 0, st2y = 0;
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            int index = (head - i + CAPACITY) % CAPACITY;
+            double t = times[index] - newestTime;
+            if (-t > FIT_WINDOW && used >= 2) {
+                break;
+            }
+            double y = positions[index];
+            double t2 = t * t;
+            s0 += 1;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            sy += y;
+            sty += t * y;
+            st2y += t2 * y;
+            used++;
+        }
+        if (quadratic && used >= 3) {
+            // Solve [s0 s1 s2; s1 s2 s3; s2 s3 s4] * [a b c] = [sy sty st2y] with Cramer's rule
+            double det = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) > 1e-9) {
+                double a = (sy * (s2 * s4 - s3 * s3) - s1 * (sty * s4 - s3 * st2y) + s2 * (sty * s3 - s2 * st2y)) / det;
+                double b = (s0 * (sty * s4 - s3 * st2y) - sy * (s1 * s4 - s3 * s2) + s2 * (s1 * st2y - sty * s2)) / det;
+                double c = (s0 * (s2 * st2y - sty * s3) - s1 * (s1 * st2y - sty * s2) + sy * (s1 * s3 - s2 * s2)) / det;
+                return (float) (a + b * dt + c * dt * dt);
+            }
+        }
+        double det = s0 * s2 - s1 * s1;
+        if (Math.abs(det) < 1e-9) {
+            return newestPosition();
+        }
+        double a = (sy * s2 - s1 * sty) / det;
+        double b = (s0 * sty - s1 * sy) / det;
+        return (float) (a + b * dt);
+    }
+
+    /**
+     * @return mean absolute error in pixels of the measured predictions
+     */
+    float getMeanPredictionError() {
+        return errorCount == 0 ? 0 : (float) (predictionErrorSum / errorCount);
+    }
+
+    /**
+     * @return mean absolute error in pixels of using the last known sample at the same times
+     */
+    float getMeanUnpredictedError() {
+        return errorCount == 0 ? 0 : (float) (unpredictedErrorSum / errorCount);
+    }
+}
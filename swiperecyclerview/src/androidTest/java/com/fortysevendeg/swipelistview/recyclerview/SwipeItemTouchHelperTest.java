@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview.recyclerview;
+
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.fortysevendeg.swipelistview.SimpleSwipeListViewListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SwipeItemTouchHelper on a RecyclerView shown in a window: settle and dismiss animations of a
+ * rebound item must not end on its new item, and the swipe state follows a replaced adapter.
+ */
+public class SwipeItemTouchHelperTest extends ActivityInstrumentationTestCase2<SwipeItemTouchHelperTestActivity> {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+    private static final int ROW_HEIGHT = 80;
+    private static final int ROWS = 100;
+    private static final int FRONT_VIEW_ID = 1;
+    private static final int BACK_VIEW_ID = 2;
+    private static final long ANIMATION_TIME = 50;
+    private static final long TIMEOUT = 5000;
+
+    private RecyclerView recyclerView;
+    private SwipeItemTouchHelper helper;
+    private RecordingListener listener;
+
+    public SwipeItemTouchHelperTest() {
+        super(SwipeItemTouchHelperTestActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        final SwipeItemTouchHelperTestActivity activity = getActivity();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView = new RecyclerView(activity);
+                recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+                recyclerView.setAdapter(new RowAdapter());
+                helper = new SwipeItemTouchHelper(FRONT_VIEW_ID, BACK_VIEW_ID);
+                helper.setAnimationTime(ANIMATION_TIME);
+                listener = new RecordingListener();
+                helper.setSwipeListViewListener(listener);
+                helper.attachToRecyclerView(recyclerView);
+                activity.setContentView(recyclerView, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+    }
+
+    public void testOpenAnimateOpensItem() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                helper.openAnimate(1);
+            }
+        });
+        assertEquals(Collections.singletonList("opened 1 left"), listener.await(1));
+        assertTrue(helper.isOpened(1));
+        assertEquals(-WIDTH, getFrontTranslationX(1), 0f);
+    }
+
+    public void testRebindCancelsSettle() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                helper.openAnimate(0);
+                // The holder shows another item before the settle ends
+                helper.onBindViewHolder(recyclerView.findViewHolderForPosition(0));
+            }
+        });
+        waitPastAnimations();
+        assertEquals(Collections.<String>emptyList(), listener.await(0));
+        assertFalse(helper.isOpened(0));
+        assertEquals(0f, getFrontTranslationX(0), 0f);
+    }
+
+    public void testRebindCancelsDismiss() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                helper.dismiss(2);
+                helper.onBindViewHolder(recyclerView.findViewHolderForPosition(2));
+            }
+        });
+        waitPastAnimations();
+        assertEquals(Collections.<String>emptyList(), listener.await(0));
+        final float[] translationX = new float[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                translationX[0] = recyclerView.findViewHolderForPosition(2).itemView.getTranslationX();
+            }
+        });
+        assertEquals(0f, translationX[0], 0f);
+    }
+
+    public void testStateFollowsNewAdapter() throws Exception {
+        final RowAdapter oldAdapter = (RowAdapter) recyclerView.getAdapter();
+        final RowAdapter newAdapter = new RowAdapter();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                helper.openAnimate(1);
+            }
+        });
+        listener.await(1);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView.setAdapter(newAdapter);
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        // The new items were bound, the opened item of the old adapter is gone
+        assertFalse(helper.isOpened(1));
+        assertEquals(0f, getFrontTranslationX(1), 0f);
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                helper.openAnimate(0);
+            }
+        });
+        assertEquals(Arrays.asList("opened 1 left", "opened 0 left"), listener.await(2));
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                newAdapter.insert(0);
+                // The old adapter is no longer observed
+                oldAdapter.insert(0);
+            }
+        });
+        assertFalse(helper.isOpened(0));
+        assertTrue(helper.isOpened(1));
+        assertFalse(helper.isOpened(2));
+    }
+
+    private float getFrontTranslationX(final int position) {
+        final float[] translationX = new float[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                View row = recyclerView.findViewHolderForPosition(position).itemView;
+                translationX[0] = row.findViewById(FRONT_VIEW_ID).getTranslationX();
+            }
+        });
+        return translationX[0];
+    }
+
+    /**
+     * Waits until an animation started before would have ended
+     */
+    private void waitPastAnimations() throws InterruptedException {
+        Thread.sleep(ANIMATION_TIME * 4);
+        getInstrumentation().waitForIdleSync();
+    }
+
+    private static class RowHolder extends RecyclerView.ViewHolder {
+
+        RowHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    /**
+     * Rows of a fixed height with a back view and a front view
+     */
+    private class RowAdapter extends RecyclerView.Adapter<RowHolder> {
+
+        private int count = ROWS;
+
+        /**
+         * Inserts an item and notifies it
+         */
+        void insert(int position) {
+            count++;
+            notifyItemInserted(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+
+        @Override
+        public RowHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            FrameLayout row = new FrameLayout(parent.getContext());
+            row.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            View back = new View(parent.getContext());
+            back.setId(BACK_VIEW_ID);
+            row.addView(back, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            View front = new View(parent.getContext());
+            front.setId(FRONT_VIEW_ID);
+            row.addView(front, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            return new RowHolder(row);
+        }
+
+        @Override
+        public void onBindViewHolder(RowHolder holder, int position) {
+            helper.onBindViewHolder(holder);
+        }
+    }
+
+    /**
+     * Records the opened, closed and dismissed items, and lets the test thread wait for them
+     */
+    private static class RecordingListener extends SimpleSwipeListViewListener {
+
+        final List<String> events = new ArrayList<String>();
+
+        @Override
+        public synchronized void onOpened(int position, boolean toRight) {
+            events.add("opened " + position + (toRight ? " right" : " left"));
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void onClosed(int position, boolean fromRight) {
+            events.add("closed " + position + (fromRight ? " right" : " left"));
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void onDismiss(int[] reverseSortedPositions) {
+            events.add("dismissed " + Arrays.toString(reverseSortedPositions));
+            notifyAll();
+        }
+
+        /**
+         * Waits until a number of callbacks were recorded
+         *
+         * @return recorded callbacks
+         */
+        synchronized List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+            while (events.size() < count) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new AssertionError("Expected " + count + " callbacks, got " + events);
+                }
+                wait(remaining);
+            }
+            return new ArrayList<String>(events);
+        }
+    }
+}
@@ -0,0 +1,697 @@
+/*
+ * Copyright (C) 2013 47 Degrees, LLC
+ * http://47deg.com
+ * hello@47deg.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fortysevendeg.swipelistview.recyclerview;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.fortysevendeg.swipelistview.SwipeGestureEngine;
+import com.fortysevendeg.swipelistview.SwipeIdStateStore;
+import com.fortysevendeg.swipelistview.SwipeListView;
+import com.fortysevendeg.swipelistview.SwipeListViewListener;
+import com.fortysevendeg.swipelistview.SwipeStateStore;
+import com.fortysevendeg.swipelistview.SwipeViewHolder;
+
+/**
+ * RecyclerView counterpart of SwipeListView: reveal and dismiss swipes on the items of a RecyclerView,
+ * with the same SwipeListViewListener callbacks, swipe modes and swipe actions.
+ *
+ * It is attached as an item touch listener, like ItemTouchHelper. The adapter calls
+ * {@link #onBindViewHolder(RecyclerView.ViewHolder)} from its own onBindViewHolder so recycled items
+ * show their swipe state. When the RecyclerView gets another adapter, the swipe state is cleared and
+ * follows the new adapter from its first bind or touch. Dismissed items are reported by SwipeListViewListener.onDismiss; remove them
+ * with notifyItemRemoved so the item animator collapses them and the swipe state follows.
+ */
+public class SwipeItemTouchHelper implements RecyclerView.OnItemTouchListener {
+
+    private final int swipeFrontView;
+    private final int swipeBackView;
+
+    private RecyclerView recyclerView;
+    private RecyclerView.Adapter<?> adapter;
+    private SwipeListViewListener swipeListViewListener;
+
+    private final SwipeGestureEngine engine;
+    private VelocityTracker velocityTracker;
+    private final SwipeStateStore swipeStates = new SwipeStateStore();
+    private final SwipeIdStateStore swipeIdStates = new SwipeIdStateStore();
+    private boolean stableIds;
+
+    private long animationTime;
+    private boolean swipeClosesAllItemsWhenListMoves = true;
+
+    private View itemView;
+    private View frontView;
+
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            resetItems();
+            if (swipeListViewListener != null) {
+                swipeListViewListener.onListChanged();
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (!stableIds) {
+                swipeStates.insert(positionStart, itemCount);
+            }
+            engine.onItemRangeInserted(positionStart, itemCount);
+            resetItems();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (!stableIds) {
+                swipeStates.removeRange(positionStart, itemCount);
+            }
+            engine.onItemRangeRemoved(positionStart, itemCount);
+            resetItems();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (!stableIds) {
+                swipeStates.move(fromPosition, toPosition, itemCount);
+            }
+            engine.onItemRangeMoved(fromPosition, toPosition, itemCount);
+            resetItems();
+        }
+    };
+
+    /**
+     * @param swipeFrontView front view id of the items
+     * @param swipeBackView  back view id of the items
+     */
+    public SwipeItemTouchHelper(int swipeFrontView, int swipeBackView) {
+        this.swipeFrontView = swipeFrontView;
+        this.swipeBackView = swipeBackView;
+        this.engine = new SwipeGestureEngine(new GestureHost(), 0, 0, 0);
+    }
+
+    /**
+     * Starts handling swipes on a RecyclerView. Its adapter must be set before.
+     *
+     * @param recyclerView RecyclerView or null to detach
+     */
+    public void attachToRecyclerView(RecyclerView recyclerView) {
+        if (this.recyclerView == recyclerView) {
+            return;
+        }
+        detach();
+        this.recyclerView = recyclerView;
+        if (recyclerView == null) {
+            return;
+        }
+        ViewConfiguration vc = ViewConfiguration.get(recyclerView.getContext());
+        engine.setSlop(vc.getScaledTouchSlop());
+        engine.setFlingVelocity(vc.getScaledMinimumFlingVelocity(), vc.getScaledMaximumFlingVelocity());
+        if (animationTime <= 0) {
+            animationTime = recyclerView.getContext().getResources().getInteger(android.R.integer.config_shortAnimTime);
+        }
+        recyclerView.addOnItemTouchListener(this);
+        observeAdapter(recyclerView.getAdapter());
+    }
+
+    /**
+     * Observes the current adapter of the RecyclerView if it was replaced since the last call.
+     * RecyclerView doesn't report adapter changes, so binds and touches check it.
+     */
+    private void followAdapter() {
+        if (recyclerView != null && recyclerView.getAdapter() != adapter) {
+            observeAdapter(recyclerView.getAdapter());
+        }
+    }
+
+    private void observeAdapter(RecyclerView.Adapter<?> newAdapter) {
+        if (adapter != null) {
+            adapter.unregisterAdapterDataObserver(dataObserver);
+        }
+        adapter = newAdapter;
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(dataObserver);
+        }
+        engine.clearPosition();
+        swipeStates.clear();
+        swipeIdStates.clear();
+        resetItems();
+    }
+
+    private void detach() {
+        if (recyclerView != null) {
+            recyclerView.removeOnItemTouchListener(this);
+        }
+        if (adapter != null) {
+            adapter.unregisterAdapterDataObserver(dataObserver);
+        }
+        recyclerView = null;
+        adapter = null;
+        itemView = null;
+        frontView = null;
+        engine.clearPosition();
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    /**
+     * Fits the swipe state to the adapter: positions follow the item count, and opened ids that are
+     * no longer in the adapter are closed
+     */
+    private void resetItems() {
+        if (adapter == null) {
+            return;
+        }
+        if (adapter.hasStableIds() != stableIds) {
+            swipeStates.clear();
+            swipeIdStates.clear();
+            stableIds = adapter.hasStableIds();
+        }
+        int count = adapter.getItemCount();
+        if (!stableIds) {
+            swipeStates.setSize(count + 1);
+        } else if (swipeIdStates.getOpenCount() > 0) {
+            // Removed or replaced items must not leave their ids opened
+            swipeIdStates.beginMark();
+            for (int i = 0; i < count && !swipeIdStates.isAllMarked(); i++) {
+                swipeIdStates.mark(adapter.getItemId(i));
+            }
+            swipeIdStates.closeUnmarked();
+        }
+    }
+
+    /**
+     * Shows the swipe state of a bound item. Call it from the adapter's onBindViewHolder.
+     *
+     * @param holder bound view holder
+     */
+    public void onBindViewHolder(RecyclerView.ViewHolder holder) {
+        followAdapter();
+        View row = holder.itemView;
+        View front = getFrontView(row);
+        // Animations of the previous item would apply their end to the new one
+        cancelItemAnimation(row);
+        cancelItemAnimation(front);
+        row.setTranslationX(0);
+        row.setAlpha(1f);
+        int position = holder.getPosition();
+        if (!isOpened(position)) {
+            front.setTranslationX(0);
+        } else {
+            inflateBackView(row);
+            int width = recyclerView != null ? recyclerView.getWidth() : row.getWidth();
+            front.setTranslationX(isOpenedRight(position) ? width : -width);
+        }
+    }
+
+    public void setSwipeListViewListener(SwipeListViewListener swipeListViewListener) {
+        this.swipeListViewListener = swipeListViewListener;
+    }
+
+    /**
+     * @param swipeMode SwipeListView.SWIPE_MODE_*
+     */
+    public void setSwipeMode(int swipeMode) {
+        engine.setSwipeMode(swipeMode);
+    }
+
+    /**
+     * @param swipeActionLeft SwipeListView.SWIPE_ACTION_*
+     */
+    public void setSwipeActionLeft(int swipeActionLeft) {
+        engine.setSwipeActionLeft(swipeActionLeft);
+    }
+
+    /**
+     * @param swipeActionRight SwipeListView.SWIPE_ACTION_*
+     */
+    public void setSwipeActionRight(int swipeActionRight) {
+        engine.setSwipeActionRight(swipeActionRight);
+    }
+
+    /**
+     * @param animationTime settle animation time in milliseconds, 0 for the platform default
+     */
+    public void setAnimationTime(long animationTime) {
+        if (animationTime > 0) {
+            this.animationTime = animationTime;
+        } else if (recyclerView != null) {
+            this.animationTime = recyclerView.getContext().getResources().getInteger(android.R.integer.config_shortAnimTime);
+        } else {
+            this.animationTime = 0;
+        }
+    }
+
+    /**
+     * @param swipeClosesAllItemsWhenListMoves true to close opened items when the list scrolls
+     */
+    public void setSwipeClosesAllItemsWhenListMoves(boolean swipeClosesAllItemsWhenListMoves) {
+        this.swipeClosesAllItemsWhenListMoves = swipeClosesAllItemsWhenListMoves;
+    }
+
+    /**
+     * @param position adapter position
+     * @return true if the item is opened
+     */
+    public boolean isOpened(int position) {
+        if (stableIds) {
+            long id = getItemId(position);
+            return id != RecyclerView.NO_ID && swipeIdStates.isOpened(id);
+        }
+        return swipeStates.isOpened(position);
+    }
+
+    private boolean isOpenedRight(int position) {
+        if (stableIds) {
+            long id = getItemId(position);
+            return id != RecyclerView.NO_ID && swipeIdStates.isOpenedRight(id);
+        }
+        return swipeStates.isOpenedRight(position);
+    }
+
+    private void markOpened(int position, boolean right) {
+        if (stableIds) {
+            long id = getItemId(position);
+            if (id != RecyclerView.NO_ID) {
+                swipeIdStates.open(id, right);
+            }
+        } else {
+            swipeStates.open(position, right);
+        }
+    }
+
+    private void markClosed(int position) {
+        if (stableIds) {
+            swipeIdStates.close(getItemId(position));
+        } else {
+            swipeStates.close(position);
+        }
+    }
+
+    private long getItemId(int position) {
+        if (adapter == null || position < 0 || position >= adapter.getItemCount()) {
+            return RecyclerView.NO_ID;
+        }
+        return adapter.getItemId(position);
+    }
+
+    private View getFrontView(View row) {
+        return SwipeViewHolder.get(row, swipeFrontView, swipeBackView).frontView;
+    }
+
+    /**
+     * Inflates the back view of an item if it is still a ViewStub
+     */
+    private void inflateBackView(View row) {
+        SwipeViewHolder.get(row, swipeFrontView, swipeBackView).inflateBackView(row, swipeBackView);
+    }
+
+    /**
+     * Opens an item with an animation, if it is visible
+     *
+     * @param position adapter position
+     */
+    public void openAnimate(int position) {
+        if (!isOpened(position)) {
+            settleVisible(position, true);
+        }
+    }
+
+    /**
+     * Closes an item with an animation, if it is visible
+     *
+     * @param position adapter position
+     */
+    public void closeAnimate(int position) {
+        if (isOpened(position)) {
+            settleVisible(position, true);
+        }
+    }
+
+    private void settleVisible(int position, boolean moveOut) {
+        RecyclerView.ViewHolder holder = recyclerView != null ? recyclerView.findViewHolderForPosition(position) : null;
+        if (holder != null) {
+            settle(holder.itemView, position, moveOut, false);
+        }
+    }
+
+    /**
+     * Closes every visible opened item
+     */
+    public void closeOpenedItems() {
+        if (recyclerView == null) {
+            return;
+        }
+        int childCount = recyclerView.getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = recyclerView.getChildAt(i);
+            int position = recyclerView.getChildPosition(child);
+            if (position != RecyclerView.NO_POSITION && isOpened(position)) {
+                settle(child, position, true, false);
+            }
+        }
+    }
+
+    /**
+     * Dismisses an item: it slides out and SwipeListViewListener.onDismiss is called
+     *
+     * @param position adapter position
+     */
+    public void dismiss(int position) {
+        RecyclerView.ViewHolder holder = recyclerView != null ? recyclerView.findViewHolderForPosition(position) : null;
+        if (holder == null) {
+            if (swipeListViewListener != null) {
+                swipeListViewListener.onDismiss(new int[]{position});
+            }
+            return;
+        }
+        dismissAnimate(holder.itemView, true, true);
+    }
+
+    /**
+     * Translates the front view of an item to its opened or closed place
+     *
+     * @param row         item view
+     * @param position    adapter position
+     * @param moveOut     true to change the state
+     * @param moveToRight direction when opening
+     */
+    private void settle(View row, int position, boolean moveOut, boolean moveToRight) {
+        View front = getFrontView(row);
+        int width = recyclerView.getWidth();
+        boolean opened = isOpened(position);
+        int moveTo = 0;
+        if (opened && !moveOut) {
+            moveTo = isOpenedRight(position) ? width : -width;
+        } else if (!opened && moveOut) {
+            moveTo = moveToRight ? width : -width;
+        }
+        front.animate()
+                .translationX(moveTo)
+                .setDuration(animationTime)
+                .setListener(getItemAnimator(front, row, false).set(moveOut, moveToRight));
+    }
+
+    /**
+     * Slides a whole item out, or back when moveOut is false
+     */
+    private void dismissAnimate(View row, boolean moveOut, boolean moveToRight) {
+        int width = recyclerView.getWidth();
+        row.animate()
+                .translationX(moveOut ? (moveToRight ? width : -width) : 0)
+                .alpha(moveOut ? 0 : 1)
+                .setDuration(animationTime)
+                .setListener(getItemAnimator(row, row, true).set(moveOut, moveToRight));
+    }
+
+    /**
+     * @param animated view the animation runs on, the listener is kept in its tag
+     * @param row      item view
+     * @param dismiss  true for the listener of dismiss animations
+     * @return reusable listener of the animations of the view
+     */
+    private ItemAnimator getItemAnimator(View animated, View row, boolean dismiss) {
+        ItemAnimator itemAnimator = (ItemAnimator) animated.getTag(R.id.swiperecyclerview__item_animator);
+        if (itemAnimator == null) {
+            itemAnimator = new ItemAnimator(row, dismiss);
+            animated.setTag(R.id.swiperecyclerview__item_animator, itemAnimator);
+        }
+        return itemAnimator;
+    }
+
+    /**
+     * Cancels the settle or dismiss animation of a view, without applying its end
+     */
+    private void cancelItemAnimation(View animated) {
+        ItemAnimator itemAnimator = (ItemAnimator) animated.getTag(R.id.swiperecyclerview__item_animator);
+        if (itemAnimator != null) {
+            itemAnimator.canceled = true;
+        }
+        animated.animate().cancel();
+    }
+
+    /**
+     * Applies the end of a settle or dismiss animation to the item's current adapter position
+     */
+    private void onItemAnimationEnd(View row, boolean dismiss, boolean moveToRight) {
+        if (recyclerView == null || row.getParent() != recyclerView) {
+            // Recycled meanwhile, the holder may already show another item
+            return;
+        }
+        int position = recyclerView.getChildViewHolder(row).getPosition();
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        if (dismiss) {
+            if (swipeListViewListener != null) {
+                swipeListViewListener.onDismiss(new int[]{position});
+            }
+        } else if (!isOpened(position)) {
+            markOpened(position, moveToRight);
+            if (swipeListViewListener != null) {
+                swipeListViewListener.onOpened(position, moveToRight);
+            }
+        } else {
+            boolean fromRight = isOpenedRight(position);
+            markClosed(position);
+            if (swipeListViewListener != null) {
+                swipeListViewListener.onClosed(position, fromRight);
+            }
+        }
+    }
+
+    /**
+     * Reusable listener of the settle or dismiss animations of an item, kept in the tag of the animated
+     * view. The item position is read from its ViewHolder when the animation ends, so items inserted,
+     * removed or moved meanwhile don't shift the state onto another item.
+     */
+    private class ItemAnimator extends AnimatorListenerAdapter {
+        private final View row;
+        private final boolean dismiss;
+        private boolean moveOut;
+        private boolean moveToRight;
+        private boolean canceled;
+
+        ItemAnimator(View row, boolean dismiss) {
+            this.row = row;
+            this.dismiss = dismiss;
+        }
+
+        /**
+         * Sets the parameters of the next animation
+         */
+        ItemAnimator set(boolean moveOut, boolean moveToRight) {
+            this.moveOut = moveOut;
+            this.moveToRight = moveToRight;
+            return this;
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            canceled = false;
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            // Replaced by a new animation of the same view, which reuses this listener
+            canceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (!canceled && moveOut) {
+                onItemAnimationEnd(row, dismiss, moveToRight);
+            }
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView recyclerView, MotionEvent motionEvent) {
+        if (motionEvent.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            onDown(recyclerView, motionEvent);
+            return false;
+        }
+        return handleTouch(recyclerView, motionEvent);
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView recyclerView, MotionEvent motionEvent) {
+        handleTouch(recyclerView, motionEvent);
+    }
+
+    private void onDown(RecyclerView recyclerView, MotionEvent motionEvent) {
+        followAdapter();
+        engine.setViewWidth(recyclerView.getWidth());
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        } else {
+            velocityTracker.clear();
+        }
+        velocityTracker.addMovement(motionEvent);
+        if (engine.getSwipeMode() != SwipeListView.SWIPE_MODE_NONE) {
+            View child = recyclerView.findChildViewUnder(motionEvent.getX(), motionEvent.getY());
+            int position = child != null ? recyclerView.getChildPosition(child) : RecyclerView.NO_POSITION;
+            if (position != RecyclerView.NO_POSITION) {
+                itemView = child;
+                frontView = getFrontView(child);
+                engine.down(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(), position);
+                return;
+            }
+        }
+        engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                SwipeGestureEngine.TOUCH_DOWN, 0, 0);
+    }
+
+    /**
+     * Adds a move or up event to the velocity of the gesture
+     */
+    private void trackVelocity(MotionEvent motionEvent) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        }
+        velocityTracker.addMovement(motionEvent);
+        velocityTracker.computeCurrentVelocity(1000);
+    }
+
+    /**
+     * @return true while the gesture is a swipe, so the RecyclerView doesn't scroll
+     */
+    private boolean handleTouch(RecyclerView recyclerView, MotionEvent motionEvent) {
+        int action = motionEvent.getActionMasked();
+        if (action == MotionEvent.ACTION_MOVE) {
+            if (!engine.isSwiping() && recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_DRAGGING) {
+                // The list scrolls, this gesture won't be a swipe
+                if (engine.isTracking()) {
+                    engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                            SwipeGestureEngine.TOUCH_CANCEL, 0, 0);
+                    if (swipeClosesAllItemsWhenListMoves) {
+                        closeOpenedItems();
+                    }
+                }
+                return false;
+            }
+            float rawOffsetX = motionEvent.getRawX() - motionEvent.getX();
+            float rawOffsetY = motionEvent.getRawY() - motionEvent.getY();
+            int historySize = motionEvent.getHistorySize();
+            for (int i = 0; i < historySize; i++) {
+                engine.addHistoricalSample(motionEvent.getHistoricalEventTime(i),
+                        motionEvent.getHistoricalX(i) + rawOffsetX, motionEvent.getHistoricalY(i) + rawOffsetY);
+            }
+            trackVelocity(motionEvent);
+            engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                    SwipeGestureEngine.TOUCH_MOVE, velocityTracker.getXVelocity(), velocityTracker.getYVelocity());
+            return engine.isSwiping();
+        }
+        if (action == MotionEvent.ACTION_UP) {
+            boolean swiping = engine.isSwiping();
+            trackVelocity(motionEvent);
+            engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                    SwipeGestureEngine.TOUCH_UP, velocityTracker.getXVelocity(), velocityTracker.getYVelocity());
+            return swiping;
+        }
+        if (action == MotionEvent.ACTION_CANCEL) {
+            boolean swiping = engine.isSwiping();
+            engine.onTouchEvent(motionEvent.getEventTime(), motionEvent.getRawX(), motionEvent.getRawY(),
+                    SwipeGestureEngine.TOUCH_CANCEL, 0, 0);
+            return swiping;
+        }
+        return false;
+    }
+
+    /**
+     * Turns the commands of the gesture engine into item translations and animations
+     */
+    private class GestureHost implements SwipeGestureEngine.Host {
+
+        @Override
+        public boolean isOpened(int position) {
+            return SwipeItemTouchHelper.this.isOpened(position);
+        }
+
+        @Override
+        public boolean isOpenedRight(int position) {
+            return SwipeItemTouchHelper.this.isOpenedRight(position);
+        }
+
+        @Override
+        public int getSwipeMode(int position) {
+            return swipeListViewListener != null ? swipeListViewListener.onChangeSwipeMode(position)
+                    : SwipeListView.SWIPE_MODE_DEFAULT;
+        }
+
+        @Override
+        public void onSwipeStart(int position, boolean opened, boolean right) {
+            inflateBackView(itemView);
+            if (swipeListViewListener == null) {
+                return;
+            }
+            if (opened) {
+                swipeListViewListener.onStartClose(position, right);
+            } else {
+                swipeListViewListener.onStartOpen(position, right);
+            }
+        }
+
+        @Override
+        public void onTranslate(int position, float deltaX, boolean dismiss) {
+            if (swipeListViewListener != null) {
+                swipeListViewListener.onMove(position, deltaX);
+            }
+            if (dismiss) {
+                frontView.setTranslationX(0);
+                itemView.setTranslationX(deltaX);
+                itemView.setAlpha(Math.max(0f, Math.min(1f,
+                        1f - 2f * Math.abs(deltaX) / engine.getViewWidth())));
+            } else {
+                itemView.setTranslationX(0);
+                itemView.setAlpha(1f);
+                frontView.setTranslationX(deltaX);
+            }
+        }
+
+        @Override
+        public void onTranslationPending(int position) {
+            // Translations are never deferred
+        }
+
+        @Override
+        public void onSettle(int position, boolean moveOut, boolean moveToRight, boolean dismiss, float velocityX) {
+            if (dismiss) {
+                dismissAnimate(itemView, moveOut, moveToRight);
+            } else {
+                settle(itemView, position, moveOut, moveToRight);
+            }
+            engine.clearPosition();
+        }
+
+        @Override
+        public void onCancel(int position) {
+            itemView.animate().translationX(0).alpha(1f).setDuration(animationTime).setListener(null);
+            settle(itemView, position, false, false);
+            engine.clearPosition();
+        }
+    }
+}